@@ -0,0 +1,36 @@
+package com.chess.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar.
+ *
+ * Accepts the usual JMH command line (benchmark regex, -f, -wi, -i, ...) and
+ * always attaches the GC profiler, so each benchmark reports
+ * gc.alloc.rate.norm (bytes allocated per operation) next to its score.
+ */
+public class BenchmarkRunner {
+
+    private BenchmarkRunner() {} // Prevent instantiation
+
+    /**
+     * Runs the selected benchmarks with the GC profiler enabled.
+     *
+     * @param args JMH command line options.
+     * @throws RunnerException If a benchmark fails.
+     * @throws CommandLineOptionException If the options cannot be parsed.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,71 @@
+package com.chess.montecarlo;
+
+import com.chess.stockfish.ChessBoard;
+import com.chess.stockfish.MoveList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares batch leaf scoring with the Vector API kernel against the scalar
+ * loop, per position. The fork adds the jdk.incubator.vector module so the
+ * vector path is taken; check MoveRating.isVectorized() in the output if the
+ * two scores are equal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class BatchEvaluationBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private PositionBatch batch;
+    private int[] scores;
+
+    @Setup
+    public void setUp() {
+        // Fill the batch with positions from random games
+        batch = new PositionBatch(BATCH_SIZE);
+        scores = new int[BATCH_SIZE];
+        Random random = new Random(42);
+        MoveList moves = new MoveList();
+        ChessBoard board = new ChessBoard();
+        while (!batch.isFull()) {
+            board.getAllLegalMoves(board.currentPlayer(), moves);
+            if (moves.isEmpty()) {
+                board = new ChessBoard();
+                continue;
+            }
+            board.makeMove(moves.get(random.nextInt(moves.size())));
+            batch.add(board);
+        }
+        System.out.println("MoveRating.isVectorized() = " + MoveRating.isVectorized());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public PositionBatch batch() {
+        MoveRating.evaluate(batch);
+        return batch;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] scalar() {
+        MoveRating.evaluateScalar(batch.squares(), batch.size(), scores);
+        return scores;
+    }
+}
@@ -0,0 +1,49 @@
+package com.chess.montecarlo;
+
+import com.chess.stockfish.ChessBoard;
+import com.chess.stockfish.PositionSnapshot;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the Monte Carlo search: static evaluation of a position and
+ * a complete random playout from the starting position. The playout
+ * score is the number of playouts per second one search thread can run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonteCarloBenchmark {
+
+    private ChessBoard middlegame;
+    private MonteCarloTree tree;
+
+    @Setup
+    public void setUp() {
+        middlegame = ChessBoard.fromFen("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        tree = new MonteCarloTree(PositionSnapshot.START);
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return MoveRating.evaluate(middlegame);
+    }
+
+    @Benchmark
+    public MonteCarloTree simulateSingleGame() {
+        tree.simulateSingleGame();
+        return tree;
+    }
+}
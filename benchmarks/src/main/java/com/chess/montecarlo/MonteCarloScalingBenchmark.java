@@ -0,0 +1,82 @@
+package com.chess.montecarlo;
+
+import com.chess.stockfish.PositionSnapshot;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares how Monte Carlo playouts per second scale with the number of
+ * threads. The single-thread loop is the baseline; the parallel benchmarks
+ * run one thread per processor (override with -t), either on independent
+ * trees (root-parallel) or on one shared tree (tree-parallel). Dividing a
+ * parallel score by the baseline gives the speedup.
+ *
+ * Trees are rebuilt every iteration so their size stays comparable.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonteCarloScalingBenchmark {
+
+    /**
+     * The tree shared by all tree-parallel threads.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedTree {
+        MonteCarloTree tree;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            tree = new MonteCarloTree(PositionSnapshot.START, 1, MonteCarloTree.Parallelism.TREE);
+        }
+    }
+
+    /**
+     * A searcher owned by one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Worker {
+        MonteCarloTree ownTree;
+        MonteCarloTree sharedTreeWorker;
+
+        @Setup(Level.Iteration)
+        public void setUp(SharedTree shared) {
+            ownTree = new MonteCarloTree(PositionSnapshot.START, 1);
+            sharedTreeWorker = shared.tree.sharedTreeWorker();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public MonteCarloTree singleThread(Worker worker) {
+        worker.ownTree.simulateSingleGame();
+        return worker.ownTree;
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public MonteCarloTree rootParallel(Worker worker) {
+        worker.ownTree.simulateSingleGame();
+        return worker.ownTree;
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public MonteCarloTree treeParallel(Worker worker) {
+        worker.sharedTreeWorker.simulateSingleGame();
+        return worker.sharedTreeWorker;
+    }
+}
@@ -0,0 +1,92 @@
+package com.chess.stockfish;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the ChessBoard operations used on every ply of a playout:
+ * legal move generation (list and MoveList forms), check detection and board
+ * copying.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChessBoardBenchmark {
+
+    @Param({"start", "kiwipete", "middlegame", "endgame"})
+    public String position;
+
+    private ChessBoard board;
+    private MoveList moves;
+
+    @Setup
+    public void setUp() {
+        board = ChessBoard.fromFen(fenFor(position));
+        moves = new MoveList();
+    }
+
+    @Benchmark
+    public List<int[]> getAllLegalMoves() {
+        return board.getAllLegalMoves(board.currentPlayer());
+    }
+
+    @Benchmark
+    public MoveList getAllLegalMovesIntoBuffer() {
+        board.getAllLegalMoves(board.currentPlayer(), moves);
+        return moves;
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return board.isInCheck(board.currentPlayer());
+    }
+
+    @Benchmark
+    public ChessBoard copy() {
+        return board.copy();
+    }
+
+    @Benchmark
+    public long makeUnmakeAllMoves() {
+        board.getAllLegalMoves(board.currentPlayer(), moves);
+        long sum = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            sum += board.hash();
+            board.unmakeMove();
+        }
+        return sum;
+    }
+
+    /**
+     * Maps a position name to its FEN.
+     */
+    static String fenFor(String name) {
+        return switch (name) {
+            case "start" ->
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+            case "kiwipete" ->
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+            case "middlegame" ->
+                "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+            case "endgame" ->
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+            default ->
+                throw new IllegalArgumentException("Unknown position: " + name);
+        };
+    }
+}
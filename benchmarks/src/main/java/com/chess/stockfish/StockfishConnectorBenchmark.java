@@ -0,0 +1,59 @@
+package com.chess.stockfish;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for parsing Stockfish's UCI output. The sample lines mirror what
+ * the engine prints during a "go movetime" search, so the score reflects the
+ * per-line cost paid while reading a search.
+ *
+ * parseSearchInfo runs the in-place parser the reader thread uses for every
+ * info line, which extracts every field; its gc.alloc.rate.norm should be 0.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockfishConnectorBenchmark {
+
+    private static final String[] SEARCH_OUTPUT = {
+        "info string NNUE evaluation using nn-1111cefa1111.nnue enabled",
+        "info depth 1 seldepth 1 multipv 1 score cp 18 nodes 20 nps 10000 hashfull 0 tbhits 0 time 2 pv e2e4",
+        "info depth 12 seldepth 16 multipv 1 score cp 31 nodes 48213 nps 1205325 hashfull 14 tbhits 0 time 40 pv e2e4 e7e5 g1f3 b8c6 f1b5 g8f6 e1g1 f6e4",
+        "info depth 20 seldepth 29 multipv 1 score cp 27 upperbound nodes 1482214 nps 1482214 hashfull 402 tbhits 0 time 1000 pv d2d4 g8f6 c2c4 e7e6 g1f3 d7d5 b1c3 f8e7 c1f4 e8g8 e2e3 c7c5",
+        "info depth 24 seldepth 31 multipv 1 score mate 7 nodes 3282214 nps 1641107 hashfull 655 tbhits 0 time 2000 pv h5f7 e8d7 f7e6",
+        "bestmove e2e4 ponder e7e5"
+    };
+
+    // The same lines laid out in one buffer, as the reader thread sees them
+    private final char[] buffer = String.join("\n", SEARCH_OUTPUT).toCharArray();
+    private final SearchInfo info = new SearchInfo();
+
+    @Benchmark
+    public void parseSearchInfo(Blackhole blackhole) {
+        int start = 0;
+        while (start < buffer.length) {
+            int end = start;
+            while (end < buffer.length && buffer[end] != '\n') {
+                end++;
+            }
+            if (UciInfoParser.parse(buffer, start, end, info)) {
+                blackhole.consume(info.getScoreCp());
+                blackhole.consume(info.getPvLength());
+            }
+            start = end + 1;
+        }
+    }
+}
@@ -1,30 +1,88 @@
 package com.chess.montecarlo;
 
 import com.chess.stockfish.ChessBoard;
+import com.chess.stockfish.GameState;
+import com.chess.stockfish.PositionSnapshot;
 
 /**
  * Monte Carlo Move Generator.
- * Uses Monte Carlo Tree Search to select the best move within 5 seconds.
+ * Uses Monte Carlo Tree Search to select the best move within the search limits (5 seconds by default).
+ * Each search starts from the latest snapshot published by the game, so the
+ * game's own board is never read while it changes.
  */
 public class MonteCarloMoves {
 
-    private final ChessBoard chessBoard;
+    private final GameState game; // Publishes the position to search
+    private final int workers; // Parallel search workers per move
+    private final MonteCarloTree.Parallelism parallelism; // How the workers share the search
+    private final SearchLimits limits; // Budget of each move's search
+    private MonteCarloTree tree; // Search tree kept between moves
 
     /**
-     * Constructor for MonteCarloMoves.
-     * Now always uses the shared ChessBoard.
+     * Constructor for MonteCarloMoves, with one search worker per available processor.
+     *
+     * @param game The game whose position is searched.
      */
-    public MonteCarloMoves() {
-        this.chessBoard = SharedBoard.getBoard(); // Always use the shared board
+    public MonteCarloMoves(GameState game) {
+        this(game, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for MonteCarloMoves with a fixed number of root-parallel search workers.
+     *
+     * @param game The game whose position is searched.
+     * @param workers The number of trees to search in parallel (at least 1).
+     * @throws IllegalArgumentException If workers is less than 1.
+     */
+    public MonteCarloMoves(GameState game, int workers) {
+        this(game, workers, MonteCarloTree.Parallelism.ROOT);
+    }
+
+    /**
+     * Constructor for MonteCarloMoves with a fixed number of search workers.
+     *
+     * @param game The game whose position is searched.
+     * @param workers The number of threads to search with (at least 1).
+     * @param parallelism How the workers share the search.
+     * @throws IllegalArgumentException If workers is less than 1.
+     */
+    public MonteCarloMoves(GameState game, int workers, MonteCarloTree.Parallelism parallelism) {
+        this(game, workers, parallelism, SearchLimits.DEFAULT);
+    }
+
+    /**
+     * Constructor for MonteCarloMoves with a fixed number of search workers and a search budget.
+     *
+     * @param game The game whose position is searched.
+     * @param workers The number of threads to search with (at least 1).
+     * @param parallelism How the workers share the search.
+     * @param limits The budget of each move's search.
+     * @throws IllegalArgumentException If workers is less than 1.
+     */
+    public MonteCarloMoves(GameState game, int workers, MonteCarloTree.Parallelism parallelism, SearchLimits limits) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Worker count must be at least 1: " + workers);
+        }
+        this.game = game;
+        this.workers = workers;
+        this.parallelism = parallelism;
+        this.limits = limits;
     }
 
     /**
      * Runs Monte Carlo Tree Search and returns the best move.
+     * The tree from the previous call is reused: its root is moved down to the
+     * current position, so the search continues from the earlier playouts.
      * @return The best move as [fromRow, fromCol, toRow, toCol].
      */
     public int[] getBestMonteCarloMove() {
-        MonteCarloTree tree = new MonteCarloTree(); // No parameters
-        tree.runSimulation(); // Runs for 5 seconds
+        PositionSnapshot position = game.snapshot();
+        if (tree == null) {
+            tree = new MonteCarloTree(position, workers, parallelism, limits);
+        } else {
+            tree.advanceTo(position);
+        }
+        tree.runSimulation(); // Runs until the search limits are reached
         return tree.getBestMove();
     }
 
@@ -33,7 +91,7 @@ public class MonteCarloMoves {
      * @return The best move for Black in [fromRow, fromCol, toRow, toCol] format.
      */
     public int[] getRandomMoveForBlack() {
-        if (chessBoard.currentPlayer() == ChessBoard.Player.BLACK) {
+        if (game.snapshot().currentPlayer() == ChessBoard.Player.BLACK) {
             return getBestMonteCarloMove(); // Uses MCTS instead of random moves
         } else {
             System.out.println("It is not black's turn");
@@ -1,85 +1,526 @@
 package com.chess.montecarlo;
 
 import com.chess.stockfish.ChessBoard;
+import com.chess.stockfish.Move;
+import com.chess.stockfish.MoveList;
+import com.chess.stockfish.PositionSnapshot;
+import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
 /**
- * Monte Carlo Tree for random game simulations with a 5-second time limit.
+ * Monte Carlo Tree Search (UCT) within configurable {@link SearchLimits}
+ * (5 seconds by default).
+ *
+ * Every iteration selects a path through the tree with UCB1, expands the
+ * leaf it reaches, plays a short random game from there and backs the result
+ * up along the path. The move played is the most visited child of the root.
+ *
+ * With more than one worker the search runs in parallel, in one of two modes:
+ * root-parallel, where each worker grows its own tree from its own copy of the
+ * position and the root visit counts of all trees are added up when time runs
+ * out, or tree-parallel, where all workers grow one shared tree.
+ *
+ * The tree can be kept between moves: {@link #advanceTo(PositionSnapshot)} moves the
+ * root down to the node for the new position, so the playouts already spent
+ * on it carry over to the next search.
+ *
+ * The search returns early when only one move is legal, or when the most
+ * visited root move can no longer be overtaken in the budget that is left.
  */
 public class MonteCarloTree {
 
-    private final ChessBoard board;
+    /**
+     * How the work is split when searching with more than one worker.
+     */
+    public enum Parallelism {
+        ROOT, // Independent trees, root statistics merged at the end
+        TREE  // One shared tree with lock-free statistics and virtual loss
+    }
+
+    private ChessBoard board; // Private copy of the root position
     private final Random random;
-    private final Map<String, Integer> moveScores; // Track scores per move
-    private static final long TIME_LIMIT_MS = 5000; // 5 seconds
+    private Node root;
+    private ChessBoard.Player rootPlayer; // Side to move at the root
+    private final MoveList legalMoves; // Reused move buffer for expansion and playouts
+    private final int workers; // Number of threads searching in parallel
+    private final Parallelism parallelism; // How the workers share the search
+    private final MonteCarloTree[] rootHelpers; // Trees of the other root-parallel workers
+    private final SearchLimits limits; // Budget of each search
+    private final int[] rootVisits; // Merged visits per root move, indexed by from * 64 + to
+    private long treeSize; // Nodes in this tree (for tree-parallel search, in the shared tree)
+    private long createdNodes; // Nodes this searcher added during the current search
+    private SearchBudget budget; // Budget of the current search
+    private static final int EARLY_STOP_INTERVAL = 256; // Iterations between early stopping checks
+    private static final int PLAYOUT_DEPTH = 8; // Random half-moves played after the tree
+    private static final double EXPLORATION = Math.sqrt(2); // UCB1 exploration constant
+    private static final double EVAL_SCALE = 400.0; // Centipawns per logistic unit
+    private static final int QUEEN = 5;
+
+    /**
+     * Constructor initializes the Monte Carlo Tree on its own board built from
+     * the snapshot, with one worker per available processor.
+     *
+     * @param position The position to search from.
+     */
+    public MonteCarloTree(PositionSnapshot position) {
+        this(position, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor initializes a root-parallel Monte Carlo Tree on its own board built from the snapshot.
+     *
+     * @param position The position to search from.
+     * @param workers The number of trees to search in parallel (at least 1).
+     * @throws IllegalArgumentException If workers is less than 1.
+     */
+    public MonteCarloTree(PositionSnapshot position, int workers) {
+        this(position, workers, Parallelism.ROOT);
+    }
+
+    /**
+     * Constructor initializes the Monte Carlo Tree on its own board built from the snapshot.
+     *
+     * @param position The position to search from.
+     * @param workers The number of threads to search with (at least 1).
+     * @param parallelism How the workers share the search.
+     * @throws IllegalArgumentException If workers is less than 1.
+     */
+    public MonteCarloTree(PositionSnapshot position, int workers, Parallelism parallelism) {
+        this(position, workers, parallelism, SearchLimits.DEFAULT);
+    }
 
     /**
-     * Constructor initializes the Monte Carlo Tree using a **copy** of the shared board.
+     * Constructor initializes the Monte Carlo Tree on its own board built from the snapshot.
+     *
+     * @param position The position to search from.
+     * @param workers The number of threads to search with (at least 1).
+     * @param parallelism How the workers share the search.
+     * @param limits The budget of each search.
+     * @throws IllegalArgumentException If workers is less than 1.
      */
-    public MonteCarloTree() {
-        this.board = SharedBoard.getBoard().copy(); // ✅ Use board.copyBoard() for safe simulations
+    public MonteCarloTree(PositionSnapshot position, int workers, Parallelism parallelism, SearchLimits limits) {
+        this(position.toBoard(), new Node(), workers, parallelism, limits);
+    }
+
+    /**
+     * Creates a tree searching the given board, which it takes ownership of.
+     *
+     * @param board The position to search from.
+     * @param root The root node, which may be shared with other workers.
+     * @param workers The number of threads to search with (at least 1).
+     * @param parallelism How the workers share the search.
+     * @param limits The budget of each search.
+     */
+    private MonteCarloTree(ChessBoard board, Node root, int workers, Parallelism parallelism, SearchLimits limits) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Worker count must be at least 1: " + workers);
+        }
+        if (parallelism == null || limits == null) {
+            throw new IllegalArgumentException("Parallelism and limits must not be null");
+        }
+        this.board = board;
         this.random = new Random();
-        this.moveScores = new HashMap<>();
+        this.root = root;
+        this.rootPlayer = board.currentPlayer();
+        this.legalMoves = new MoveList();
+        this.workers = workers;
+        this.parallelism = parallelism;
+        this.limits = limits;
+        this.rootVisits = new int[64 * 64];
+        this.treeSize = 1;
+        this.budget = SearchBudget.unlimited();
+        this.rootHelpers = new MonteCarloTree[parallelism == Parallelism.ROOT ? workers - 1 : 0];
+        for (int i = 0; i < rootHelpers.length; i++) {
+            rootHelpers[i] = new MonteCarloTree(board.copy(), new Node(), 1, Parallelism.ROOT, limits);
+        }
     }
 
     /**
-     * Simulates multiple random games within a time limit.
+     * Moves the root of the tree to the given position, keeping the subtree
+     * already searched below it. The position is looked for among the
+     * children and grandchildren of the current root, which covers our own
+     * move followed by the opponent's reply. The rest of the tree is released.
+     * If the position is not found, the search starts from a new root.
+     *
+     * @param position The position to search from next.
+     * @return True if an existing subtree was reused.
+     */
+    public boolean advanceTo(PositionSnapshot position) {
+        Node next = board.hash() == position.hash() ? root : findDescendant(root, position.hash(), 2);
+        for (MonteCarloTree helper : rootHelpers) {
+            helper.advanceTo(position);
+        }
+
+        board = position.toBoard();
+        rootPlayer = board.currentPlayer();
+
+        if (next == null) {
+            root = new Node();
+            treeSize = 1;
+            return false;
+        }
+        next.parent = null; // Let the rest of the old tree be collected
+        root = next;
+        treeSize = countNodes(root);
+        return true;
+    }
+
+    /**
+     * Counts the nodes of a subtree.
+     *
+     * @param node The root of the subtree.
+     * @return The number of nodes, including node itself.
+     */
+    private static long countNodes(Node node) {
+        long count = 0;
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            Node n = pending.pop();
+            count++;
+            Node[] children = n.children;
+            if (children != null) {
+                for (Node child : children) {
+                    pending.push(child);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Searches the expanded part of the tree below a node for a position,
+     * playing the moves on the tree's board and taking them back.
+     *
+     * @param node The node standing for the current board position.
+     * @param hash The Zobrist key of the position to find.
+     * @param plies The number of half-moves to look ahead.
+     * @return The node of the position, or null if it was not found.
+     */
+    private Node findDescendant(Node node, long hash, int plies) {
+        Node[] children = node.children;
+        if (children == null || plies == 0) {
+            return null;
+        }
+        for (Node child : children) {
+            board.makeMove(child.move);
+            Node found = board.hash() == hash ? child : findDescendant(child, hash, plies - 1);
+            board.unmakeMove();
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs search iterations until the search limits are reached. Extra
+     * workers run on their own threads while the calling thread searches this
+     * tree and watches for early stopping. Root-parallel workers search their
+     * own trees, whose root statistics are merged at the end; tree-parallel
+     * workers all search this tree. If only one move is legal, no search is run.
      */
     public void runSimulation() {
-        long startTime = System.currentTimeMillis();
-        while (System.currentTimeMillis() - startTime < TIME_LIMIT_MS) {
+        long initialNodes = treeSize;
+        for (MonteCarloTree helper : rootHelpers) {
+            initialNodes += helper.treeSize;
+        }
+        budget = new SearchBudget(limits, initialNodes);
+        createdNodes = 0;
+
+        if (!root.isExpanded()) {
+            Node[] children = root.expand(createChildren(root));
+            budget.addNodes(children.length);
+            createdNodes += children.length;
+        }
+        if (root.children.length <= 1) {
+            treeSize += createdNodes;
+            return; // Forced move (or no move at all): nothing to search
+        }
+
+        MonteCarloTree[] helpers = parallelism == Parallelism.TREE ? new MonteCarloTree[workers - 1] : rootHelpers;
+        Thread[] threads = new Thread[helpers.length];
+
+        for (int i = 0; i < threads.length; i++) {
+            if (parallelism == Parallelism.TREE) {
+                helpers[i] = sharedTreeWorker();
+            }
+            MonteCarloTree helper = helpers[i];
+            helper.budget = budget;
+            helper.createdNodes = 0;
+            threads[i] = new Thread(helper::search, "mcts-worker-" + (i + 1));
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        searchWithEarlyStop();
+
+        // Workers stop on their own at the deadline, so wait for all of them
+        // even if this thread is interrupted
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        treeSize += createdNodes;
+        for (MonteCarloTree helper : helpers) {
+            if (parallelism == Parallelism.TREE) {
+                treeSize += helper.createdNodes; // Added to the shared tree
+            } else {
+                helper.treeSize += helper.createdNodes;
+            }
+        }
+    }
+
+    /**
+     * Replaces the merged root statistics with those of this tree and all
+     * root-parallel helper trees. Underpromotions are never children, so
+     * from and to identify a root move.
+     */
+    private void mergeAllRootStatistics() {
+        Arrays.fill(rootVisits, 0);
+        mergeRootStatistics(root);
+        for (MonteCarloTree helper : rootHelpers) {
+            mergeRootStatistics(helper.root);
+        }
+    }
+
+    /**
+     * Creates a single-threaded searcher that works on this tree with its
+     * own copy of the root position.
+     *
+     * @return A searcher sharing this tree's nodes.
+     */
+    MonteCarloTree sharedTreeWorker() {
+        return new MonteCarloTree(board.copy(), root, 1, Parallelism.TREE, limits);
+    }
+
+    /**
+     * Runs search iterations on this tree until the budget is used up.
+     */
+    private void search() {
+        while (budget.startPlayout()) {
             simulateSingleGame();
         }
     }
 
     /**
-     * Simulates a single random game to a fixed depth.
+     * Runs search iterations on this tree until the budget is used up, and
+     * stops the search early once the most visited root move is certain to
+     * stay ahead.
+     */
+    private void searchWithEarlyStop() {
+        int iterations = 0;
+        while (budget.startPlayout()) {
+            simulateSingleGame();
+            if (++iterations % EARLY_STOP_INTERVAL == 0 && isDecided()) {
+                budget.stop();
+            }
+        }
+    }
+
+    /**
+     * Checks whether the second most visited root move could still catch up
+     * with the most visited one if it received every remaining playout.
+     *
+     * @return True if the most visited root move can no longer be overtaken.
+     */
+    private boolean isDecided() {
+        mergeAllRootStatistics();
+        int best = 0;
+        int second = 0;
+        for (Node child : root.children) {
+            int visits = rootVisits[statisticsIndex(child.move)];
+            if (visits > best) {
+                second = best;
+                best = visits;
+            } else if (visits > second) {
+                second = visits;
+            }
+        }
+        return best - second > budget.remainingPlayouts();
+    }
+
+    /**
+     * Adds the visit counts of a root's children to the merged statistics.
+     *
+     * @param treeRoot The root of a searched tree.
+     */
+    private void mergeRootStatistics(Node treeRoot) {
+        Node[] children = treeRoot.children;
+        if (children != null) {
+            for (Node child : children) {
+                rootVisits[statisticsIndex(child.move)] += child.visits;
+            }
+        }
+    }
+
+    /**
+     * @param move A packed move.
+     * @return The index of the move in the root statistics table.
+     */
+    private static int statisticsIndex(int move) {
+        return Move.from(move) << 6 | Move.to(move);
+    }
+
+    /**
+     * Runs one search iteration: selection, expansion, a random playout and
+     * backpropagation. All moves are played on the tree's own board and taken
+     * back afterwards, so an iteration does not copy the board. Visits are
+     * counted on the way down and rewards on the way up, so other threads
+     * searching the same tree see the pending playout as a virtual loss.
      */
-    private void simulateSingleGame() {
-        ChessBoard simulationBoard = board.copy(); 
-        ChessBoard.Player originalPlayer = simulationBoard.currentPlayer();
-        List<int[]> legalMoves = simulationBoard.getAllLegalMoves(originalPlayer);
+    void simulateSingleGame() {
+        Node node = root;
+        int depth = 0; // Half-moves played from the root, in the tree and in the playout
+        int treeDepth; // Depth of the node the result is backed up from
+        double whiteReward = Double.NaN;
 
-        if (legalMoves.isEmpty()) {
-            return; // No moves possible
+        // Selection: follow UCB1 down to a leaf of the tree
+        node.addVisit();
+        for (Node[] children = node.children; children != null && children.length > 0; children = node.children) {
+            node = node.selectChild(EXPLORATION);
+            node.addVisit();
+            board.makeMove(node.move);
+            depth++;
         }
+        treeDepth = depth;
 
-        int[] firstMove = null;
-        int evaluation = 0;
+        // Expansion: a leaf is expanded on its second visit, which keeps the
+        // many nodes that are only ever visited once from allocating children
+        if (!node.isExpanded() && (node.visits > 1 || node == root) && budget.canExpand()) {
+            Node[] created = createChildren(node);
+            Node[] children = node.expand(created);
+            if (children == created) {
+                budget.addNodes(created.length);
+                createdNodes += created.length;
+            }
+            if (children.length > 0) {
+                node = children[random.nextInt(children.length)];
+                node.addVisit();
+                board.makeMove(node.move);
+                depth++;
+                treeDepth++;
+            }
+        }
 
-        for (int i = 0; i < 8; i++) {
-            legalMoves = simulationBoard.getAllLegalMoves(simulationBoard.currentPlayer());
+        // Simulation: random moves from the new node, then a static evaluation
+        for (int i = 0; i < PLAYOUT_DEPTH; i++) {
+            board.getAllLegalMoves(board.currentPlayer(), legalMoves);
             if (legalMoves.isEmpty()) {
+                whiteReward = terminalReward();
                 break;
             }
+            board.makeMove(legalMoves.get(random.nextInt(legalMoves.size())));
+            depth++;
+        }
+        if (Double.isNaN(whiteReward)) {
+            whiteReward = evaluationReward();
+        }
+
+        // Return the board to the root position for the next iteration
+        for (int i = 0; i < depth; i++) {
+            board.unmakeMove();
+        }
+
+        backpropagate(node, treeDepth, whiteReward);
+    }
 
-            int[] chosenMove = legalMoves.get(random.nextInt(legalMoves.size()));
-            if (i == 0) {
-                firstMove = chosenMove;
+    /**
+     * Generates the children of a node from the legal moves of the current
+     * board position. Underpromotions are left out, since the move is
+     * reported as [fromRow, fromCol, toRow, toCol] and always promotes to a queen.
+     *
+     * @param node The node standing for the current board position.
+     * @return The new children, not yet attached to the node.
+     */
+    private Node[] createChildren(Node node) {
+        board.getAllLegalMoves(board.currentPlayer(), legalMoves);
+        int count = 0;
+        Node[] children = new Node[legalMoves.size()];
+        for (int i = 0; i < legalMoves.size(); i++) {
+            int move = legalMoves.get(i);
+            int promotion = Move.promotion(move);
+            if (promotion == 0 || promotion == QUEEN) {
+                children[count++] = new Node(node, move);
             }
+        }
+        return count == children.length ? children : Arrays.copyOf(children, count);
+    }
 
-            simulationBoard.movePiece(chosenMove[0], chosenMove[1], chosenMove[2], chosenMove[3]);
-            simulationBoard.nextMove();
-            evaluation += MoveRating.evaluate(simulationBoard);
+    /**
+     * Adds the reward of one playout to a node and all its ancestors. Their
+     * visits were already counted during selection.
+     *
+     * @param node The deepest tree node of the iteration.
+     * @param depth The depth of that node below the root.
+     * @param whiteReward The playout result from White's point of view, in [0, 1].
+     */
+    private void backpropagate(Node node, int depth, double whiteReward) {
+        boolean rootIsWhite = rootPlayer == ChessBoard.Player.WHITE;
+        for (Node n = node; n != null; n = n.parent, depth--) {
+            // Odd depths were reached by a move of the side to move at the root
+            boolean moverIsWhite = (depth & 1) == 1 ? rootIsWhite : !rootIsWhite;
+            n.addReward(moverIsWhite ? whiteReward : 1.0 - whiteReward);
         }
+    }
 
-        if (firstMove != null) {
-            String moveKey = moveToString(firstMove);
-            moveScores.put(moveKey, moveScores.getOrDefault(moveKey, 0) + evaluation);
+    /**
+     * Scores a position with no legal moves: a loss for the side to move if
+     * it is checkmated, a draw if it is stalemated.
+     *
+     * @return The result from White's point of view.
+     */
+    private double terminalReward() {
+        ChessBoard.Player toMove = board.currentPlayer();
+        if (!board.isInCheck(toMove)) {
+            return 0.5;
         }
+        return toMove == ChessBoard.Player.WHITE ? 0.0 : 1.0;
+    }
+
+    /**
+     * Maps the static evaluation of the current position to an expected
+     * score with a logistic curve.
+     *
+     * @return The expected result from White's point of view, in (0, 1).
+     */
+    private double evaluationReward() {
+        return 1.0 / (1.0 + Math.exp(-MoveRating.evaluate(board) / EVAL_SCALE));
     }
 
     /**
-     * Returns the best move based on the highest rating.
+     * Returns the root move with the most visits over all workers.
      *
      * @return The best move as [fromRow, fromCol, toRow, toCol].
      */
     public int[] getBestMove() {
-        if (moveScores.isEmpty()) {
+        int best = Move.NONE;
+        Node[] children = root.children;
+        if (children != null) {
+            mergeAllRootStatistics();
+            int bestVisits = -1; // A forced move is returned even though it was never visited
+            for (Node child : children) {
+                int visits = rootVisits[statisticsIndex(child.move)];
+                if (visits > bestVisits) {
+                    best = child.move;
+                    bestVisits = visits;
+                }
+            }
+        }
+
+        if (best == Move.NONE) {
             // If Monte Carlo fails, pick a random move instead of returning -1s
             List<int[]> fallbackMoves = board.getAllLegalMoves(board.currentPlayer());
             if (!fallbackMoves.isEmpty()) {
@@ -89,31 +530,17 @@ public class MonteCarloTree {
             return new int[]{-1, -1, -1, -1}; // No valid move found
         }
 
-        int[] scores = moveScores.entrySet()
-                .stream()
-                .max(Map.Entry.comparingByValue())
-                .map(entry -> stringToMove(entry.getKey()))
-                .orElse(new int[]{-1, -1, -1, -1});
-        return scores;
-    }
-
-    /**
-     * Converts a move to a string format.
-     */
-    private String moveToString(int[] move) {
-        return move[0] + "," + move[1] + "," + move[2] + "," + move[3];
+        return Move.toArray(best);
     }
 
     /**
-     * Converts a string back to a move array.
+     * @return The number of completed search iterations over all workers.
      */
-    private int[] stringToMove(String moveStr) {
-        String[] parts = moveStr.split(",");
-        return new int[]{
-            Integer.parseInt(parts[0]),
-            Integer.parseInt(parts[1]),
-            Integer.parseInt(parts[2]),
-            Integer.parseInt(parts[3])
-        };
+    public long getPlayouts() {
+        long playouts = root.visits;
+        for (MonteCarloTree helper : rootHelpers) {
+            playouts += helper.root.visits;
+        }
+        return playouts;
     }
 }
@@ -1,31 +1,25 @@
 package com.chess.montecarlo;
 
 import com.chess.stockfish.ChessBoard;
+import com.chess.stockfish.PieceSquareTables;
 
 /**
  * MoveRating class that evaluates chess positions using heuristics similar to Stockfish.
+ * The material values and piece-square tables live in
+ * {@link com.chess.stockfish.PieceSquareTables}, and the board keeps their sum up
+ * to date as pieces move.
+ *
+ * Positions that are not held in a ChessBoard can be scored in bulk with
+ * {@link #evaluate(PositionBatch)}, which uses SIMD instructions when the
+ * jdk.incubator.vector module is available (run with
+ * {@code --add-modules jdk.incubator.vector}) and a scalar loop otherwise.
  */
 public class MoveRating {
-    
-    private static final int PAWN_VALUE = 100;
-    private static final int KNIGHT_VALUE = 320;
-    private static final int BISHOP_VALUE = 330;
-    private static final int ROOK_VALUE = 500;
-    private static final int QUEEN_VALUE = 900;
-    private static final int KING_VALUE = 20000;
-    
-    // Piece-Square Tables (simplified, mimicking Stockfish evaluation)
-    private static final int[][] PAWN_TABLE = {
-        {0, 0, 0, 0, 0, 0, 0, 0},
-        {50, 50, 50, 50, 50, 50, 50, 50},
-        {10, 10, 20, 30, 30, 20, 10, 10},
-        {5, 5, 10, 25, 25, 10, 5, 5},
-        {0, 0, 0, 20, 20, 0, 0, 0},
-        {5, -5, -10, 0, 0, -10, -5, 5},
-        {5, 10, 10, -20, -20, 10, 10, 5},
-        {0, 0, 0, 0, 0, 0, 0, 0}
-    };
-    
+
+    // True when the Vector API module was resolved at startup
+    private static final boolean VECTOR_API =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
     // Constructor not needed anymore as evaluation is static
     private MoveRating() {}
 
@@ -35,41 +29,43 @@ public class MoveRating {
      * @return A score where positive is better for White, negative for Black.
      */
     public static int evaluate(ChessBoard board) {
-        int score = 0;
-        
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                int piece = board.getPieceAt(row, col);
-                score += evaluatePiece(piece, row, col);
-            }
+        return board.getPieceSquareScore();
+    }
+
+    /**
+     * Evaluates every position in a batch. The scores are read back with
+     * {@link PositionBatch#getScore(int)}.
+     * @param batch The positions to evaluate.
+     */
+    public static void evaluate(PositionBatch batch) {
+        if (VECTOR_API) {
+            VectorEvaluator.evaluate(batch.squares(), batch.size(), batch.scores());
+        } else {
+            evaluateScalar(batch.squares(), batch.size(), batch.scores());
         }
-        
-        return score;
     }
 
     /**
-     * Evaluates a single piece on the board.
-     * @param piece The piece identifier (+ for White, - for Black).
-     * @param row The row index.
-     * @param col The column index.
-     * @return The evaluation score for that piece.
+     * Scalar version of the batch evaluation.
+     * @param squares The piece codes, 64 per position.
+     * @param count The number of positions.
+     * @param scores The array receiving one score per position.
      */
-    private static int evaluatePiece(int piece, int row, int col) {
-        if (piece == 0) return 0;
-        
-        int value = 0;
-        boolean isWhite = piece > 0;
-        int pieceType = Math.abs(piece);
-        
-        switch (pieceType) {
-            case 1 -> value = PAWN_VALUE + PAWN_TABLE[isWhite ? row : 7 - row][col];
-            case 2 -> value = ROOK_VALUE;
-            case 3 -> value = KNIGHT_VALUE;
-            case 4 -> value = BISHOP_VALUE;
-            case 5 -> value = QUEEN_VALUE;
-            case 6 -> value = KING_VALUE;
+    static void evaluateScalar(byte[] squares, int count, int[] scores) {
+        for (int position = 0; position < count; position++) {
+            int base = position * 64;
+            int score = 0;
+            for (int sq = 0; sq < 64; sq++) {
+                score += PieceSquareTables.score(squares[base + sq], sq);
+            }
+            scores[position] = score;
         }
-        
-        return isWhite ? value : -value;
+    }
+
+    /**
+     * @return True if batch evaluation uses the Vector API.
+     */
+    public static boolean isVectorized() {
+        return VECTOR_API;
     }
 }
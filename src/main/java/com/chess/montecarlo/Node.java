@@ -0,0 +1,134 @@
+package com.chess.montecarlo;
+
+import com.chess.stockfish.Move;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A node of the Monte Carlo search tree. Each node stands for the position
+ * reached by playing {@code move} from its parent, and keeps the number of
+ * playouts through it and the sum of their rewards, seen from the side that
+ * played the move.
+ *
+ * The statistics and the children array are updated atomically, so several
+ * threads can search the same tree without locks. A visit is counted when a
+ * thread descends through the node and its reward is added when the playout
+ * finishes; until then the pending playout counts as a loss (a virtual loss),
+ * which steers other threads towards different branches.
+ */
+class Node {
+
+    private static final VarHandle VISITS;
+    private static final VarHandle TOTAL_REWARD;
+    private static final VarHandle CHILDREN;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VISITS = lookup.findVarHandle(Node.class, "visits", int.class);
+            TOTAL_REWARD = lookup.findVarHandle(Node.class, "totalReward", double.class);
+            CHILDREN = lookup.findVarHandle(Node.class, "children", Node[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    Node parent;                     // Null for the root; cleared when the tree is re-rooted
+    final int move;                  // Packed move leading to this node (Move.NONE for the root)
+    volatile Node[] children;        // Null until the node is expanded
+    volatile int visits;             // Playouts that passed through this node, including pending ones
+    volatile double totalReward;     // Sum of rewards in [0, 1] for the side that played move
+
+    /**
+     * Creates a node.
+     *
+     * @param parent The parent node, or null for the root.
+     * @param move The packed move leading to this node.
+     */
+    Node(Node parent, int move) {
+        this.parent = parent;
+        this.move = move;
+    }
+
+    /**
+     * Creates a root node.
+     */
+    Node() {
+        this(null, Move.NONE);
+    }
+
+    /**
+     * @return True once the legal moves of this node have been generated.
+     */
+    boolean isExpanded() {
+        return children != null;
+    }
+
+    /**
+     * @return The mean reward of this node, or 0 if it was never visited.
+     */
+    double meanReward() {
+        int n = visits;
+        return n == 0 ? 0.0 : totalReward / n;
+    }
+
+    /**
+     * Counts a visit to this node. Called on the way down the tree, before
+     * the playout's reward is known.
+     */
+    void addVisit() {
+        VISITS.getAndAdd(this, 1);
+    }
+
+    /**
+     * Adds the reward of a finished playout.
+     *
+     * @param reward The reward in [0, 1] for the side that played move.
+     */
+    void addReward(double reward) {
+        double current;
+        do {
+            current = (double) TOTAL_REWARD.getVolatile(this);
+        } while (!TOTAL_REWARD.compareAndSet(this, current, current + reward));
+    }
+
+    /**
+     * Installs the children of this node unless another thread has already
+     * done so.
+     *
+     * @param expanded The children generated by the calling thread.
+     * @return The children of this node: either expanded, or those installed
+     *         first by another thread.
+     */
+    Node[] expand(Node[] expanded) {
+        Node[] witness = (Node[]) CHILDREN.compareAndExchange(this, (Node[]) null, expanded);
+        return witness == null ? expanded : witness;
+    }
+
+    /**
+     * Selects the child with the highest UCB1 score. Unvisited children are
+     * always tried first.
+     *
+     * @param exploration The exploration constant C.
+     * @return The selected child.
+     */
+    Node selectChild(double exploration) {
+        double logVisits = Math.log(visits);
+        Node best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+
+        for (Node child : children) {
+            int childVisits = child.visits;
+            if (childVisits == 0) {
+                return child;
+            }
+            double score = child.totalReward / childVisits
+                    + exploration * Math.sqrt(logVisits / childVisits);
+            if (score > bestScore) {
+                bestScore = score;
+                best = child;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,95 @@
+package com.chess.montecarlo;
+
+import com.chess.stockfish.ChessBoard;
+
+/**
+ * A batch of positions laid out for bulk scoring with
+ * {@link MoveRating#evaluate(PositionBatch)}. Each position takes 64
+ * consecutive bytes holding the piece code of every square, so the whole
+ * batch is one flat array that can be scanned with wide vector loads.
+ *
+ * A batch is reused: fill it with {@link #add(ChessBoard)}, evaluate it, read
+ * the scores, then {@link #clear()} it for the next round.
+ */
+public final class PositionBatch {
+
+    private final byte[] squares; // 64 piece codes per position
+    private final int[] scores; // Score per position, filled by MoveRating.evaluate
+    private int size;
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param capacity The maximum number of positions in the batch.
+     * @throws IllegalArgumentException If capacity is not positive.
+     */
+    public PositionBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Batch capacity must be positive: " + capacity);
+        }
+        this.squares = new byte[capacity * 64];
+        this.scores = new int[capacity];
+    }
+
+    /**
+     * Adds a position to the batch.
+     *
+     * @param board The position to add; it is copied, not referenced.
+     * @return The index of the position in the batch.
+     * @throws IllegalStateException If the batch is full.
+     */
+    public int add(ChessBoard board) {
+        if (size == scores.length) {
+            throw new IllegalStateException("Position batch is full (" + size + " positions)");
+        }
+        board.copySquaresTo(squares, size * 64);
+        return size++;
+    }
+
+    /**
+     * Returns the score of a position after the batch has been evaluated.
+     *
+     * @param index The index returned by add.
+     * @return The score, positive when White is better.
+     * @throws IndexOutOfBoundsException If index is not a position in the batch.
+     */
+    public int getScore(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for batch of " + size);
+        }
+        return scores[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return scores.length;
+    }
+
+    public boolean isFull() {
+        return size == scores.length;
+    }
+
+    /**
+     * Removes all positions from the batch.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return The backing square array (64 bytes per position).
+     */
+    byte[] squares() {
+        return squares;
+    }
+
+    /**
+     * @return The backing score array.
+     */
+    int[] scores() {
+        return scores;
+    }
+}
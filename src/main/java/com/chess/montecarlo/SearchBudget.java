@@ -0,0 +1,110 @@
+package com.chess.montecarlo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The running state of one search against its {@link SearchLimits}, shared
+ * by all workers. Workers claim each playout before starting it, so the
+ * playout limit is never exceeded, and any worker that finds the budget used
+ * up stops the whole search.
+ */
+class SearchBudget {
+
+    private final SearchLimits limits;
+    private final long startTime;     // System.currentTimeMillis() when the search started
+    private final long deadline;      // Time to stop, or Long.MAX_VALUE without a time limit
+    private final long maxTreeNodes;  // Nodes allowed by the memory cap
+    private final long initialNodes;  // Nodes already in the tree(s) when the search started
+    private final AtomicLong playouts = new AtomicLong();
+    private final AtomicLong nodes = new AtomicLong(); // Nodes added during this search
+    private volatile boolean stopped;
+
+    /**
+     * Creates the budget for a search starting now.
+     *
+     * @param limits The limits of the search.
+     * @param initialNodes The number of nodes already in the tree(s).
+     */
+    SearchBudget(SearchLimits limits, long initialNodes) {
+        this.limits = limits;
+        this.startTime = System.currentTimeMillis();
+        this.deadline = limits.getTimeMs() == SearchLimits.UNLIMITED
+                ? Long.MAX_VALUE
+                : startTime + limits.getTimeMs();
+        this.maxTreeNodes = limits.maxTreeNodes();
+        this.initialNodes = initialNodes;
+    }
+
+    /**
+     * A budget without limits, for searchers driven one iteration at a time.
+     *
+     * @return A new unlimited budget.
+     */
+    static SearchBudget unlimited() {
+        return new SearchBudget(new SearchLimits(SearchLimits.UNLIMITED, SearchLimits.UNLIMITED,
+                SearchLimits.UNLIMITED, SearchLimits.UNLIMITED), 0);
+    }
+
+    /**
+     * Claims one playout. Stops the search if the time, playout or node
+     * budget is used up.
+     *
+     * @return True if the playout may run.
+     */
+    boolean startPlayout() {
+        if (stopped) {
+            return false;
+        }
+        if (playouts.getAndIncrement() >= limits.getPlayouts()
+                || nodes.get() >= limits.getNodes()
+                || System.currentTimeMillis() >= deadline) {
+            stopped = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records nodes added to the tree.
+     *
+     * @param count The number of new nodes.
+     */
+    void addNodes(int count) {
+        nodes.addAndGet(count);
+    }
+
+    /**
+     * @return True while the tree is below the memory cap.
+     */
+    boolean canExpand() {
+        return initialNodes + nodes.get() < maxTreeNodes;
+    }
+
+    /**
+     * Stops the search; workers finish their current playout and return.
+     */
+    void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Estimates how many more playouts the search can run, from the playout
+     * limit and from the playout rate so far and the time left.
+     *
+     * @return The estimated number of remaining playouts.
+     */
+    long remainingPlayouts() {
+        long done = Math.min(playouts.get(), limits.getPlayouts());
+        long remaining = limits.getPlayouts() == SearchLimits.UNLIMITED
+                ? Long.MAX_VALUE
+                : limits.getPlayouts() - done;
+
+        if (deadline != Long.MAX_VALUE) {
+            long now = System.currentTimeMillis();
+            long elapsed = Math.max(1, now - startTime);
+            double rate = (double) done / elapsed;
+            remaining = Math.min(remaining, (long) Math.ceil(rate * Math.max(0, deadline - now)));
+        }
+        return remaining;
+    }
+}
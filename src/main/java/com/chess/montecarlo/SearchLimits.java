@@ -0,0 +1,113 @@
+package com.chess.montecarlo;
+
+/**
+ * Budget for one Monte Carlo search. The search stops as soon as the time,
+ * playout or node budget is used up, whichever comes first. The memory cap
+ * does not stop the search; once the tree reaches it, no more nodes are added
+ * and the remaining playouts refine the statistics of the existing tree.
+ *
+ * Instances are immutable; the {@code with...} methods return modified copies.
+ */
+public final class SearchLimits {
+
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    // Estimated heap cost of one tree node: the object plus its slot in the parent's children array
+    static final long BYTES_PER_NODE = 56;
+
+    /**
+     * The default budget: 5 seconds, with no other limits.
+     */
+    public static final SearchLimits DEFAULT = ofTime(5000);
+
+    private final long timeMs;
+    private final long playouts;
+    private final long nodes;
+    private final long memoryBytes;
+
+    /**
+     * Creates search limits. Use {@link #UNLIMITED} for a budget that should
+     * not apply.
+     *
+     * @param timeMs The time budget in milliseconds.
+     * @param playouts The maximum number of playouts.
+     * @param nodes The maximum number of tree nodes added during the search.
+     * @param memoryBytes The maximum estimated size of the whole tree, in bytes.
+     * @throws IllegalArgumentException If any limit is not positive.
+     */
+    public SearchLimits(long timeMs, long playouts, long nodes, long memoryBytes) {
+        if (timeMs <= 0 || playouts <= 0 || nodes <= 0 || memoryBytes <= 0) {
+            throw new IllegalArgumentException("Search limits must be positive: time=" + timeMs
+                    + " playouts=" + playouts + " nodes=" + nodes + " memory=" + memoryBytes);
+        }
+        this.timeMs = timeMs;
+        this.playouts = playouts;
+        this.nodes = nodes;
+        this.memoryBytes = memoryBytes;
+    }
+
+    /**
+     * @param timeMs The time budget in milliseconds.
+     * @return Limits with only a time budget.
+     */
+    public static SearchLimits ofTime(long timeMs) {
+        return new SearchLimits(timeMs, UNLIMITED, UNLIMITED, UNLIMITED);
+    }
+
+    /**
+     * @param playouts The maximum number of playouts.
+     * @return Limits with only a playout budget.
+     */
+    public static SearchLimits ofPlayouts(long playouts) {
+        return new SearchLimits(UNLIMITED, playouts, UNLIMITED, UNLIMITED);
+    }
+
+    public SearchLimits withTime(long timeMs) {
+        return new SearchLimits(timeMs, playouts, nodes, memoryBytes);
+    }
+
+    public SearchLimits withPlayouts(long playouts) {
+        return new SearchLimits(timeMs, playouts, nodes, memoryBytes);
+    }
+
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(timeMs, playouts, nodes, memoryBytes);
+    }
+
+    public SearchLimits withMemoryBytes(long memoryBytes) {
+        return new SearchLimits(timeMs, playouts, nodes, memoryBytes);
+    }
+
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * @return The largest tree, in nodes, that fits the memory cap.
+     */
+    long maxTreeNodes() {
+        return memoryBytes == UNLIMITED ? UNLIMITED : memoryBytes / BYTES_PER_NODE;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchLimits[time=" + format(timeMs) + "ms, playouts=" + format(playouts)
+                + ", nodes=" + format(nodes) + ", memory=" + format(memoryBytes) + "B]";
+    }
+
+    private static String format(long limit) {
+        return limit == UNLIMITED ? "unlimited" : Long.toString(limit);
+    }
+}
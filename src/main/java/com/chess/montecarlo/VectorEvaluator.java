@@ -0,0 +1,85 @@
+package com.chess.montecarlo;
+
+import com.chess.stockfish.PieceSquareTables;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel for {@link MoveRating#evaluate(PositionBatch)}, built on the
+ * incubating Vector API. Only referenced when the jdk.incubator.vector module
+ * is present, so the rest of the application runs without it.
+ *
+ * The piece-square score splits into material, which depends only on the
+ * piece, and a positional bonus, which only pawns have. Material is counted
+ * with one lane-wise compare per piece code; the pawn bonus is selected from
+ * byte tables with the pawn masks and summed in 16-bit lanes.
+ */
+final class VectorEvaluator {
+
+    // A position is 64 bytes, so lanes wider than that (e.g. SVE above 512 bits) would read
+    // past it; such hardware uses 512-bit vectors instead
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED.length() <= 64
+            ? ByteVector.SPECIES_PREFERRED
+            : ByteVector.SPECIES_512;
+    // Same shape as BYTES, so its two halves widen into two short vectors
+    private static final VectorSpecies<Short> SHORTS = VectorSpecies.of(short.class, BYTES.vectorShape());
+
+    // Material value per piece type (index 1-6), the same for both colors
+    private static final int[] VALUES = new int[7];
+
+    // Pawn bonus per square for each color, without the pawn's material value
+    private static final byte[] WHITE_PAWN_BONUS = new byte[64];
+    private static final byte[] BLACK_PAWN_BONUS = new byte[64];
+
+    static {
+        for (int type = 2; type <= 6; type++) {
+            VALUES[type] = PieceSquareTables.score(type, 0);
+        }
+        VALUES[1] = PieceSquareTables.PAWN_VALUE;
+        for (int sq = 0; sq < 64; sq++) {
+            WHITE_PAWN_BONUS[sq] = (byte) (PieceSquareTables.score(1, sq) - PieceSquareTables.PAWN_VALUE);
+            BLACK_PAWN_BONUS[sq] = (byte) (-PieceSquareTables.score(-1, sq) - PieceSquareTables.PAWN_VALUE);
+        }
+    }
+
+    private VectorEvaluator() {} // Prevent instantiation
+
+    /**
+     * Scores positions stored as 64 piece codes each.
+     *
+     * @param squares The piece codes, 64 per position.
+     * @param count The number of positions.
+     * @param scores The array receiving one score per position.
+     */
+    static void evaluate(byte[] squares, int count, int[] scores) {
+        ByteVector zero = ByteVector.zero(BYTES);
+        for (int position = 0; position < count; position++) {
+            int base = position * 64;
+            int material = 0;
+            ShortVector bonus = ShortVector.zero(SHORTS);
+
+            for (int i = 0; i < 64; i += BYTES.length()) {
+                ByteVector pieces = ByteVector.fromArray(BYTES, squares, base + i);
+
+                VectorMask<Byte> whitePawns = pieces.eq((byte) 1);
+                VectorMask<Byte> blackPawns = pieces.eq((byte) -1);
+                material += VALUES[1] * (whitePawns.trueCount() - blackPawns.trueCount());
+                for (int type = 2; type <= 6; type++) {
+                    material += VALUES[type]
+                            * (pieces.eq((byte) type).trueCount() - pieces.eq((byte) -type).trueCount());
+                }
+
+                // Bonuses lie within [-128, 127] per square, but their sum may not, so widen before adding
+                ByteVector pawnBonus = zero.blend(ByteVector.fromArray(BYTES, WHITE_PAWN_BONUS, i), whitePawns)
+                        .sub(zero.blend(ByteVector.fromArray(BYTES, BLACK_PAWN_BONUS, i), blackPawns));
+                bonus = bonus.add(pawnBonus.convertShape(VectorOperators.B2S, SHORTS, 0))
+                        .add(pawnBonus.convertShape(VectorOperators.B2S, SHORTS, 1));
+            }
+
+            scores[position] = material + bonus.reduceLanes(VectorOperators.ADD);
+        }
+    }
+}
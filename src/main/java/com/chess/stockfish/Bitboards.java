@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: Bitboards
+ *
+ * This class holds the precomputed attack tables used by the bitboard backend
+ * of `ChessBoard`. A bitboard is a 64-bit long where bit `row * 8 + col` is set
+ * when the square at (row, col) is part of the set, so square 0 is a8 and
+ * square 63 is h1, matching the layout of `ChessBoard.getBoardArray()`.
+ *
+ * Key functionalities include:
+ * - Knight, king and pawn attack tables indexed by square.
+ * - Ray tables for the eight sliding directions.
+ * - Between and line tables for aligned pairs of squares, used for pins and
+ *   check blocking.
+ * - Rook, bishop and queen attack lookup for a given occupancy.
+ *
+ * All tables are built once when the class is loaded and are never modified
+ * afterwards, so they can be shared freely between boards and threads.
+ */
+package com.chess.stockfish;
+
+final class Bitboards {
+
+    // Color indices used by the per-color tables
+    static final int WHITE = 0;
+    static final int BLACK = 1;
+
+    // Ray directions as {rowStep, colStep}. Directions 0-3 run towards higher
+    // square indices, directions 4-7 towards lower square indices.
+    private static final int[][] DIRECTIONS = {
+        {1, 0}, {0, 1}, {1, 1}, {1, -1}, // South, East, South-East, South-West
+        {-1, 0}, {0, -1}, {-1, -1}, {-1, 1} // North, West, North-West, North-East
+    };
+
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+    static final long[][] RAYS = new long[8][64];
+
+    // Squares strictly between two aligned squares, and the full line through
+    // them (including both squares); both are 0 for unaligned squares.
+    static final long[][] BETWEEN = new long[64][64];
+    static final long[][] LINE = new long[64][64];
+
+    static {
+        int[][] knightSteps = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+
+        for (int sq = 0; sq < 64; sq++) {
+            int row = sq >>> 3;
+            int col = sq & 7;
+
+            for (int[] step : knightSteps) {
+                KNIGHT_ATTACKS[sq] |= bit(row + step[0], col + step[1]);
+            }
+
+            for (int[] direction : DIRECTIONS) {
+                KING_ATTACKS[sq] |= bit(row + direction[0], col + direction[1]);
+            }
+
+            // White pawns move towards row 0, black pawns towards row 7
+            PAWN_ATTACKS[WHITE][sq] = bit(row - 1, col - 1) | bit(row - 1, col + 1);
+            PAWN_ATTACKS[BLACK][sq] = bit(row + 1, col - 1) | bit(row + 1, col + 1);
+
+            for (int d = 0; d < 8; d++) {
+                int r = row + DIRECTIONS[d][0];
+                int c = col + DIRECTIONS[d][1];
+                while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                    RAYS[d][sq] |= 1L << (r * 8 + c);
+                    r += DIRECTIONS[d][0];
+                    c += DIRECTIONS[d][1];
+                }
+            }
+        }
+
+        for (int sq = 0; sq < 64; sq++) {
+            for (int d = 0; d < 8; d++) {
+                long ray = RAYS[d][sq];
+                while (ray != 0) {
+                    int target = Long.numberOfTrailingZeros(ray);
+                    BETWEEN[sq][target] = RAYS[d][sq] & ~RAYS[d][target] & ~(1L << target);
+                    LINE[sq][target] = RAYS[d][sq] | RAYS[(d + 4) & 7][sq] | (1L << sq);
+                    ray &= ray - 1;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {} // Prevent instantiation
+
+    /**
+     * Returns the single-bit bitboard for a square, or 0 if the coordinates
+     * fall outside the board.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The bitboard with only that square set.
+     */
+    private static long bit(int row, int col) {
+        if (row < 0 || row > 7 || col < 0 || col > 7) {
+            return 0L;
+        }
+        return 1L << (row * 8 + col);
+    }
+
+    /**
+     * Returns the squares attacked along one ray, stopping at (and including)
+     * the first occupied square.
+     *
+     * @param direction The ray direction index (0-7).
+     * @param sq The square the ray starts from.
+     * @param occupied The bitboard of all occupied squares.
+     * @return The attacked squares along the ray.
+     */
+    private static long rayAttacks(int direction, int sq, long occupied) {
+        long attacks = RAYS[direction][sq];
+        long blockers = attacks & occupied;
+        if (blockers != 0) {
+            int blocker = direction < 4
+                    ? Long.numberOfTrailingZeros(blockers)
+                    : 63 - Long.numberOfLeadingZeros(blockers);
+            attacks ^= RAYS[direction][blocker];
+        }
+        return attacks;
+    }
+
+    /**
+     * Returns the squares a rook on the given square attacks.
+     *
+     * @param sq The rook's square.
+     * @param occupied The bitboard of all occupied squares.
+     * @return The attacked squares, including the first blocker on each ray.
+     */
+    static long rookAttacks(int sq, long occupied) {
+        return rayAttacks(0, sq, occupied) | rayAttacks(1, sq, occupied)
+                | rayAttacks(4, sq, occupied) | rayAttacks(5, sq, occupied);
+    }
+
+    /**
+     * Returns the squares a bishop on the given square attacks.
+     *
+     * @param sq The bishop's square.
+     * @param occupied The bitboard of all occupied squares.
+     * @return The attacked squares, including the first blocker on each ray.
+     */
+    static long bishopAttacks(int sq, long occupied) {
+        return rayAttacks(2, sq, occupied) | rayAttacks(3, sq, occupied)
+                | rayAttacks(6, sq, occupied) | rayAttacks(7, sq, occupied);
+    }
+
+    /**
+     * Returns the squares a queen on the given square attacks.
+     *
+     * @param sq The queen's square.
+     * @param occupied The bitboard of all occupied squares.
+     * @return The attacked squares, including the first blocker on each ray.
+     */
+    static long queenAttacks(int sq, long occupied) {
+        return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+    }
+}
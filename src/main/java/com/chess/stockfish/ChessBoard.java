@@ -25,8 +25,10 @@
  * Class: ChessBoard
  *
  * This class represents a chessboard and provides methods to manage its state.
- * The chessboard is stored as an 8x8 integer array, where positive numbers represent 
- * white pieces and negative numbers represent black pieces.
+ * Pieces are identified by integers, where positive numbers represent white pieces
+ * and negative numbers represent black pieces. Internally the position is stored as
+ * bitboards (one 64-bit long per piece type and color, plus occupancy per color)
+ * alongside a 64-entry square array for constant-time piece lookups.
  *
  * Key functionalities include:
  * - Retrieving the board state as a 2D array or a 1D array.
@@ -36,23 +38,105 @@
  */
 package com.chess.stockfish;
 
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
 
 public class ChessBoard {
 
-    // The chessboard is represented as an 8x8 2D array.
-    private final int[][] board = new int[][]{
+    // The starting position, row 0 is Black's back rank and row 7 is White's.
+    private static final int[][] INITIAL_BOARD = {
         {-2, -3, -4, -5, -6, -4, -3, -2}, // Row 0: Black's major pieces
         {-1, -1, -1, -1, -1, -1, -1, -1}, // Row 1: Black's pawns
         {0, 0, 0, 0, 0, 0, 0, 0}, // Empty squares
         {0, 0, 0, 0, 0, 0, 0, 0}, // Empty squares
         {0, 0, 0, 0, 0, 0, 0, 0}, // Empty squares
         {0, 0, 0, 0, 0, 0, 0, 0}, // Empty squares
-        {1, 1, 1, 1, 1, 1, 1, 1}, // White's pawns
+        {1, 1, 1, 1, 1, 1, 1, 1}, // Row 6: White's pawns
         {2, 3, 4, 5, 6, 4, 3, 2} // Row 7: White's major pieces
     };
 
+    // Piece codes (use the negative value for Black)
+    private static final int PAWN = 1;
+    private static final int ROOK = 2;
+    private static final int KNIGHT = 3;
+    private static final int BISHOP = 4;
+    private static final int QUEEN = 5;
+    private static final int KING = 6;
+
+    // Castling rights flags
+    private static final int WHITE_KINGSIDE = 1;
+    private static final int WHITE_QUEENSIDE = 2;
+    private static final int BLACK_KINGSIDE = 4;
+    private static final int BLACK_QUEENSIDE = 8;
+    private static final int ALL_CASTLING = 15;
+
+    // Castling rights kept when a piece moves from or to each square
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[0] &= ~BLACK_QUEENSIDE;  // a8 rook
+        CASTLING_MASK[7] &= ~BLACK_KINGSIDE;  // h8 rook
+        CASTLING_MASK[4] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);  // e8 king
+        CASTLING_MASK[56] &= ~WHITE_QUEENSIDE;  // a1 rook
+        CASTLING_MASK[63] &= ~WHITE_KINGSIDE;  // h1 rook
+        CASTLING_MASK[60] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);  // e1 king
+    }
+
+    // Initial size of the undo stack; it doubles if a game runs longer
+    private static final int UNDO_CAPACITY = 512;
+
+    // Initial undo stack size of a copy; copies are searched, not played out
+    // as whole games, so a smaller stack that grows on demand is enough
+    private static final int COPY_UNDO_CAPACITY = 64;
+
+    // The piece on each square, indexed by row * 8 + col (0 when empty).
+    private final int[] squares = new int[64];
+
+    // One bitboard per piece, indexed by bitboardIndex(piece).
+    private final long[] pieceBitboards = new long[12];
+
+    // All squares occupied by each color, indexed by Bitboards.WHITE/BLACK.
+    private final long[] colorBitboards = new long[2];
+
+    // The square of each king, indexed by Bitboards.WHITE/BLACK (-1 if none).
+    // Kept up to date by putPiece/clearSquare so check tests need no search.
+    private final int[] kingSquares = {-1, -1};
+
+    // Remaining castling rights as a combination of the flags above
+    private int castlingRights = ALL_CASTLING;
+
+    // The square a pawn can capture onto en passant, or -1 if none
+    private int enPassantSquare = -1;
+
+    // Zobrist key of the position, updated incrementally (see Zobrist)
+    private long hash;
+
+    // Material and piece-square score (see PieceSquareTables), updated incrementally
+    private int pieceSquareScore;
+
+    // Half-moves since the last capture or pawn move (for the fifty-move rule)
+    private int halfmoveClock = 0;
+
+    // Number of the current full move, starting at 1 and incremented after Black moves
+    private int fullmoveNumber = 1;
+
+    // Undo stack used by makeMove/unmakeMove, one entry per move played
+    private int[] undoFrom;
+    private int[] undoTo;
+    private int[] undoPiece;
+    private int[] undoCaptured;
+    private int[] undoCaptureSquare;
+    private int[] undoCastling;
+    private int[] undoEnPassant;
+    private long[] undoHash;
+    private int[] undoHalfmove;
+    private int undoSize = 0;
+
     private int[] lastMove;
 
     // Enum to represent the player's turn
@@ -60,21 +144,248 @@ public class ChessBoard {
         WHITE, BLACK
     }
 
-    // The current player (whose turn it is)
-    private static Player move = Player.WHITE;
+    // The current player (whose turn it is). Each board keeps its own turn so
+    // that makeMove/unmakeMove on one board never affect another.
+    private Player move = Player.WHITE;
+
+    /**
+     * Creates a board set up in the standard starting position.
+     */
+    public ChessBoard() {
+        this(UNDO_CAPACITY);
+        loadBoard(INITIAL_BOARD);
+    }
+
+    /**
+     * Creates an empty board with no pieces. The factory methods use this
+     * and then load their own position, so the starting position is never
+     * set up only to be overwritten.
+     *
+     * @param undoCapacity The initial size of the undo stack.
+     */
+    private ChessBoard(int undoCapacity) {
+        undoFrom = new int[undoCapacity];
+        undoTo = new int[undoCapacity];
+        undoPiece = new int[undoCapacity];
+        undoCaptured = new int[undoCapacity];
+        undoCaptureSquare = new int[undoCapacity];
+        undoCastling = new int[undoCapacity];
+        undoEnPassant = new int[undoCapacity];
+        undoHash = new long[undoCapacity];
+        undoHalfmove = new int[undoCapacity];
+    }
+
+    /**
+     * Creates a board from a position in Forsyth-Edwards Notation, e.g.
+     * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1". The
+     * side to move, castling and en passant fields are optional and default
+     * to "w", "-" and "-".
+     *
+     * @param fen The position in FEN.
+     * @return A new board holding the position.
+     * @throws IllegalArgumentException If the FEN is malformed.
+     */
+    public static ChessBoard fromFen(String fen) {
+        ChessBoard board = new ChessBoard(UNDO_CAPACITY);
+        board.loadFen(fen);
+        return board;
+    }
+
+    /**
+     * Replaces the whole position with the one described by a FEN string.
+     *
+     * @param fen The position in FEN.
+     * @throws IllegalArgumentException If the FEN is malformed.
+     */
+    private void loadFen(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        String[] rows = fields[0].split("/");
+        if (rows.length != 8) {
+            throw new IllegalArgumentException("FEN must describe 8 rows: " + fen);
+        }
+
+        int[][] layout = new int[8][8];
+        for (int row = 0; row < 8; row++) {
+            int col = 0;
+            for (char c : rows[row].toCharArray()) {
+                if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                } else {
+                    int type = "prnbqk".indexOf(Character.toLowerCase(c)) + 1;
+                    if (type == 0 || col > 7) {
+                        throw new IllegalArgumentException("Invalid FEN row '" + rows[row] + "': " + fen);
+                    }
+                    layout[row][col++] = Character.isUpperCase(c) ? type : -type;
+                }
+            }
+            if (col != 8) {
+                throw new IllegalArgumentException("Invalid FEN row '" + rows[row] + "': " + fen);
+            }
+        }
+
+        String side = fields.length > 1 ? fields[1] : "w";
+        if (!side.equals("w") && !side.equals("b")) {
+            throw new IllegalArgumentException("Invalid side to move '" + side + "': " + fen);
+        }
+
+        int rights = 0;
+        String castling = fields.length > 2 ? fields[2] : "-";
+        for (char c : castling.toCharArray()) {
+            switch (c) {
+                case 'K' ->
+                    rights |= WHITE_KINGSIDE;
+                case 'Q' ->
+                    rights |= WHITE_QUEENSIDE;
+                case 'k' ->
+                    rights |= BLACK_KINGSIDE;
+                case 'q' ->
+                    rights |= BLACK_QUEENSIDE;
+                case '-' -> {
+                }
+                default ->
+                    throw new IllegalArgumentException("Invalid castling rights '" + castling + "': " + fen);
+            }
+        }
+
+        int epSquare = -1;
+        String enPassant = fields.length > 3 ? fields[3] : "-";
+        if (!enPassant.equals("-")) {
+            if (enPassant.length() != 2 || enPassant.charAt(0) < 'a' || enPassant.charAt(0) > 'h'
+                    || (enPassant.charAt(1) != '3' && enPassant.charAt(1) != '6')) {
+                throw new IllegalArgumentException("Invalid en passant square '" + enPassant + "': " + fen);
+            }
+            epSquare = (8 - (enPassant.charAt(1) - '0')) * 8 + (enPassant.charAt(0) - 'a');
+        }
+
+        int halfmoves = parseClock(fields, 4, 0, fen);
+        int fullmoves = parseClock(fields, 5, 1, fen);
+        if (fullmoves < 1) {
+            throw new IllegalArgumentException("Invalid fullmove number '" + fields[5] + "': " + fen);
+        }
+
+        move = side.equals("w") ? Player.WHITE : Player.BLACK;
+        castlingRights = rights;
+        enPassantSquare = epSquare;
+        halfmoveClock = halfmoves;
+        fullmoveNumber = fullmoves;
+        undoSize = 0;
+        lastMove = null;
+        loadBoard(layout);
+    }
+
+    /**
+     * Describes the position in Forsyth-Edwards Notation, with all six
+     * fields: pieces, side to move, castling rights, en passant square,
+     * halfmove clock and fullmove number. fromFen(toFen()) gives back the
+     * same position.
+     *
+     * @return The position in FEN.
+     */
+    public String toFen() {
+        return formatFen(sq -> squares[sq], move, castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    /**
+     * Writes a position in FEN.
+     *
+     * @param pieceAt Gives the piece code of a square index (a8 = 0).
+     * @param side The player to move.
+     * @param rights The castling rights flags.
+     * @param epSquare The en passant target square, or -1.
+     * @param halfmoves The halfmove clock.
+     * @param fullmoves The fullmove number.
+     * @return The position in FEN.
+     */
+    static String formatFen(IntUnaryOperator pieceAt, Player side, int rights, int epSquare,
+            int halfmoves, int fullmoves) {
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int piece = pieceAt.applyAsInt(row * 8 + col);
+                if (piece == 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char letter = "PRNBQK".charAt(Math.abs(piece) - 1);
+                fen.append(piece > 0 ? letter : Character.toLowerCase(letter));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row < 7) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(side == Player.WHITE ? " w " : " b ");
+        if (rights == 0) {
+            fen.append('-');
+        } else {
+            if ((rights & WHITE_KINGSIDE) != 0) {
+                fen.append('K');
+            }
+            if ((rights & WHITE_QUEENSIDE) != 0) {
+                fen.append('Q');
+            }
+            if ((rights & BLACK_KINGSIDE) != 0) {
+                fen.append('k');
+            }
+            if ((rights & BLACK_QUEENSIDE) != 0) {
+                fen.append('q');
+            }
+        }
+
+        fen.append(' ');
+        if (epSquare < 0) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + (epSquare & 7))).append(8 - (epSquare >> 3));
+        }
+        return fen.append(' ').append(halfmoves).append(' ').append(fullmoves).toString();
+    }
+
+    /**
+     * Reads one of the move counters at the end of a FEN string.
+     *
+     * @param fields The FEN fields.
+     * @param index The index of the counter field.
+     * @param defaultValue The value to use if the field is missing.
+     * @param fen The whole FEN, for error messages.
+     * @return The counter value.
+     * @throws IllegalArgumentException If the field is not a non-negative number.
+     */
+    private static int parseClock(String[] fields, int index, int defaultValue, String fen) {
+        if (fields.length <= index) {
+            return defaultValue;
+        }
+        try {
+            int value = Integer.parseInt(fields[index]);
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid move counter '" + fields[index] + "': " + fen);
+    }
 
     /**
      * Returns a copy of the current chessboard as a 2D array.
      *
-     * This method returns a deep copy of the 2D array to prevent direct
-     * modification of the internal board state by other classes.
+     * This method builds a new 2D array on every call, so changes to it do
+     * not affect the internal board state.
      *
      * @return A copy of the chessboard as a 2D integer array.
      */
     public int[][] getBoard() {
-        int[][] boardCopy = new int[board.length][];
-        for (int i = 0; i < board.length; i++) {
-            boardCopy[i] = board[i].clone(); // Clone each row for deep copy
+        int[][] boardCopy = new int[8][8];
+        for (int row = 0; row < 8; row++) {
+            System.arraycopy(squares, row * 8, boardCopy[row], 0, 8);
         }
         return boardCopy;
     }
@@ -88,18 +399,31 @@ public class ChessBoard {
      */
     public int[] getBoardArray() {
         int[] oneDimensionalBoard = new int[65];
-        for (int y = 0; y < 8; y++) {
-            for (int x = 0; x < 8; x++) {
-                oneDimensionalBoard[(8 * y) + x] = board[y][x];
-            }
-        }
+        System.arraycopy(squares, 0, oneDimensionalBoard, 0, 64);
         return oneDimensionalBoard;
     }
 
+    /**
+     * Writes the piece code of every square into a byte array, in square
+     * order (a8 first, h1 last). This is the compact layout used to score
+     * many positions at once.
+     *
+     * @param dest The array to write to.
+     * @param offset The index of the first square in dest.
+     * @throws IndexOutOfBoundsException If dest has fewer than 64 bytes from offset.
+     */
+    public void copySquaresTo(byte[] dest, int offset) {
+        Objects.checkFromIndexSize(offset, 64, dest.length);
+        for (int sq = 0; sq < 64; sq++) {
+            dest[offset + sq] = (byte) squares[sq];
+        }
+    }
+
     /**
      * Moves a piece from one square to another on the chessboard.
      *
-     * Special moves like castling are handled separately.
+     * Special moves like castling are handled separately. This does not
+     * change the player to move and cannot be undone; use makeMove for that.
      *
      * @param fromRow The starting row of the piece.
      * @param fromCol The starting column of the piece.
@@ -109,74 +433,219 @@ public class ChessBoard {
     public void movePiece(int fromRow, int fromCol, int toRow, int toCol) {
         if (fromRow >= 0 && fromRow < 8 && fromCol >= 0 && fromCol < 8
                 && toRow >= 0 && toRow < 8 && toCol >= 0 && toCol < 8) {
-
-            int piece = board[fromRow][fromCol];
-            if (piece == 0) {
+            int from = fromRow * 8 + fromCol;
+            if (squares[from] == 0) {
                 return;  // No piece to move
             }
+            applyMove(from, toRow * 8 + toCol, QUEEN);  // Automatically promote to a queen for now
+        }
+    }
 
-            // Handle castling (king moving two squares to either side)
-            if (Math.abs(piece) == 6) {  // King (6 for white, -6 for black)
-                if (fromCol == 4 && (toCol == 6 || toCol == 2)) {
-                    if (toCol == 6) {  // Kingside castling
-                        board[fromRow][4] = 0;  // Move king
-                        board[fromRow][6] = piece;
-                        board[fromRow][7] = 0;  // Move rook
-                        board[fromRow][5] = (piece > 0) ? 2 : -2;  // Place rook
-                    } else if (toCol == 2) {  // Queenside castling
-                        board[fromRow][4] = 0;  // Move king
-                        board[fromRow][2] = piece;
-                        board[fromRow][0] = 0;  // Move rook
-                        board[fromRow][3] = (piece > 0) ? 2 : -2;  // Place rook
-                    }
-                    return;
-                }
-            }
+    /**
+     * Plays a move and pushes it onto the undo stack so it can be taken back
+     * with unmakeMove. The player to move is switched. Pawns reaching the
+     * last rank are promoted to a queen.
+     *
+     * @param fromRow The starting row of the piece.
+     * @param fromCol The starting column of the piece.
+     * @param toRow The destination row of the piece.
+     * @param toCol The destination column of the piece.
+     */
+    public void makeMove(int fromRow, int fromCol, int toRow, int toCol) {
+        makeMove(fromRow, fromCol, toRow, toCol, QUEEN);
+    }
 
-            // Handle en passant: Pawn moves diagonally onto an empty square
-            if (Math.abs(piece) == 1 && fromCol != toCol && board[toRow][toCol] == 0) {
-                int capturedPawnRow = (piece == 1) ? toRow + 1 : toRow - 1;
-                if (board[capturedPawnRow][toCol] == -piece) { // Ensure en passant is valid
-                    board[capturedPawnRow][toCol] = 0; // Remove captured pawn
-                }
-            }
+    /**
+     * Plays a move and pushes it onto the undo stack so it can be taken back
+     * with unmakeMove. The player to move is switched.
+     *
+     * @param fromRow The starting row of the piece.
+     * @param fromCol The starting column of the piece.
+     * @param toRow The destination row of the piece.
+     * @param toCol The destination column of the piece.
+     * @param promotion The piece type a pawn reaching the last rank becomes
+     * (2 rook, 3 knight, 4 bishop, 5 queen); ignored for other moves.
+     */
+    public void makeMove(int fromRow, int fromCol, int toRow, int toCol, int promotion) {
+        int from = fromRow * 8 + fromCol;
+        if (squares[from] == 0) {
+            throw new IllegalArgumentException("No piece at " + toChessNotation(fromRow, fromCol));
+        }
+        applyMove(from, toRow * 8 + toCol, promotion);
+        undoSize++;
+        nextMove();
+    }
 
-            // Regular move
-            board[fromRow][fromCol] = 0;  // Clear original square
-            board[toRow][toCol] = piece;  // Move piece to destination
+    /**
+     * Plays a packed move (see Move) and pushes it onto the undo stack so it
+     * can be taken back with unmakeMove. The player to move is switched.
+     *
+     * @param move The packed move.
+     */
+    public void makeMove(int move) {
+        applyMove(Move.from(move), Move.to(move), Move.promotion(move));
+        undoSize++;
+        nextMove();
+    }
 
-            // Handle pawn promotion
-            if ((piece == 1 && toRow == 0) || (piece == -1 && toRow == 7)) {
-                promotePawn(toRow, toCol, piece > 0);  // Promote white or black pawn
+    /**
+     * Takes back the last move played with makeMove, restoring the captured
+     * piece, castling rights, en passant square and player to move.
+     *
+     * @throws IllegalStateException If there is no move to take back.
+     */
+    public void unmakeMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        int i = --undoSize;
+        int from = undoFrom[i];
+        int to = undoTo[i];
+        int piece = undoPiece[i];
+
+        clearSquare(to);  // Also removes a promoted piece
+        putPiece(from, piece);
+
+        // Put the rook back after castling
+        if (Math.abs(piece) == KING && Math.abs(to - from) == 2) {
+            int rookFrom = (to > from) ? from + 3 : from - 4;
+            int rookTo = (to > from) ? from + 1 : from - 1;
+            int rook = squares[rookTo];
+            if (rook != 0) {
+                clearSquare(rookTo);
+                putPiece(rookFrom, rook);
             }
         }
+
+        if (undoCaptured[i] != 0) {
+            putPiece(undoCaptureSquare[i], undoCaptured[i]);
+        }
+
+        castlingRights = undoCastling[i];
+        enPassantSquare = undoEnPassant[i];
+        halfmoveClock = undoHalfmove[i];
+        move = (move == Player.WHITE) ? Player.BLACK : Player.WHITE;
+        if (move == Player.BLACK) {
+            fullmoveNumber--;  // Taking back Black's move returns to the previous full move
+        }
+        hash = undoHash[i];  // Also undoes the key changes made above
     }
 
     /**
-     * Promotes a pawn that reaches the end of the board.
+     * Changes the castling rights and updates the position key.
      *
-     * @param row The row where the pawn is located.
-     * @param col The column where the pawn is located.
-     * @param isWhite True if the pawn is white, false if black.
+     * @param rights The new castling rights flags.
      */
-    private void promotePawn(int row, int col, boolean isWhite) {
-        String choice = "Q";  // Automatically promote to a queen for now
+    private void setCastlingRights(int rights) {
+        if (rights != castlingRights) {
+            hash ^= Zobrist.CASTLING[castlingRights] ^ Zobrist.CASTLING[rights];
+            castlingRights = rights;
+        }
+    }
 
-        int newPiece;
-        switch (choice) {
-            case "Q" ->
-                newPiece = isWhite ? 5 : -5;  // Queen
-            case "R" ->
-                newPiece = isWhite ? 2 : -2;  // Rook
-            case "N" ->
-                newPiece = isWhite ? 3 : -3;  // Knight
-            case "B" ->
-                newPiece = isWhite ? 4 : -4;  // Bishop
-            default ->
-                newPiece = isWhite ? 5 : -5;  // Default to Queen
+    /**
+     * Changes the en passant square and updates the position key.
+     *
+     * @param sq The new en passant square, or -1 for none.
+     */
+    private void setEnPassantSquare(int sq) {
+        if (enPassantSquare >= 0) {
+            hash ^= Zobrist.EN_PASSANT_FILE[enPassantSquare & 7];
+        }
+        enPassantSquare = sq;
+        if (sq >= 0) {
+            hash ^= Zobrist.EN_PASSANT_FILE[sq & 7];
+        }
+    }
+
+    /**
+     * Applies a move to the board and records what is needed to undo it in
+     * the undo stack slot at undoSize. The slot is only kept if the caller
+     * increments undoSize afterwards.
+     *
+     * @param from The square the piece moves from.
+     * @param to The square the piece moves to.
+     * @param promotion The piece type a promoting pawn becomes.
+     */
+    private void applyMove(int from, int to, int promotion) {
+        ensureUndoCapacity(undoSize + 1);
+        int piece = squares[from];
+        int captureSquare = to;
+
+        // Handle castling (king moving two squares to either side)
+        boolean castling = Math.abs(piece) == KING && (from & 7) == 4
+                && (from >>> 3) == (to >>> 3) && ((to & 7) == 6 || (to & 7) == 2);
+
+        // Handle en passant: Pawn moves diagonally onto an empty square
+        if (Math.abs(piece) == PAWN && (from & 7) != (to & 7) && squares[to] == 0) {
+            int capturedPawnSquare = (piece == PAWN) ? to + 8 : to - 8;
+            if (squares[capturedPawnSquare] == -piece) { // Ensure en passant is valid
+                captureSquare = capturedPawnSquare;
+            }
         }
 
-        board[row][col] = newPiece;
+        int i = undoSize;
+        undoFrom[i] = from;
+        undoTo[i] = to;
+        undoPiece[i] = piece;
+        undoCaptured[i] = castling ? 0 : squares[captureSquare];
+        undoCaptureSquare[i] = captureSquare;
+        undoCastling[i] = castlingRights;
+        undoEnPassant[i] = enPassantSquare;
+        undoHash[i] = hash;
+        undoHalfmove[i] = halfmoveClock;
+
+        // Pawn moves and captures reset the fifty-move counter
+        halfmoveClock = (Math.abs(piece) == PAWN || undoCaptured[i] != 0) ? 0 : halfmoveClock + 1;
+
+        clearSquare(from);  // Clear original square
+        if (castling) {
+            int rookFrom = (to > from) ? from + 3 : from - 4;
+            int rookTo = (to > from) ? from + 1 : from - 1;
+            int rook = squares[rookFrom];
+            clearSquare(rookFrom);  // Move rook
+            if (rook != 0) {
+                putPiece(rookTo, rook);  // Place rook
+            }
+        } else {
+            clearSquare(captureSquare);  // Remove any captured piece
+        }
+
+        // Handle pawn promotion
+        int placed = piece;
+        if ((piece == PAWN && to < 8) || (piece == -PAWN && to >= 56)) {
+            int type = (promotion >= ROOK && promotion <= QUEEN) ? promotion : QUEEN;
+            placed = (piece > 0) ? type : -type;
+        }
+        clearSquare(to);
+        putPiece(to, placed);  // Move piece to destination
+
+        // Moving a king or rook, or capturing a rook, loses castling rights
+        setCastlingRights(castlingRights & CASTLING_MASK[from] & CASTLING_MASK[to]);
+
+        // A double pawn push makes the skipped square capturable en passant
+        setEnPassantSquare((Math.abs(piece) == PAWN && Math.abs(to - from) == 16) ? (from + to) / 2 : -1);
+    }
+
+    /**
+     * Grows the undo stack if it cannot hold the requested number of moves.
+     * This only happens for games longer than the preallocated capacity.
+     *
+     * @param capacity The number of entries required.
+     */
+    private void ensureUndoCapacity(int capacity) {
+        if (capacity > undoFrom.length) {
+            int newCapacity = Math.max(capacity, undoFrom.length * 2);
+            undoFrom = Arrays.copyOf(undoFrom, newCapacity);
+            undoTo = Arrays.copyOf(undoTo, newCapacity);
+            undoPiece = Arrays.copyOf(undoPiece, newCapacity);
+            undoCaptured = Arrays.copyOf(undoCaptured, newCapacity);
+            undoCaptureSquare = Arrays.copyOf(undoCaptureSquare, newCapacity);
+            undoCastling = Arrays.copyOf(undoCastling, newCapacity);
+            undoEnPassant = Arrays.copyOf(undoEnPassant, newCapacity);
+            undoHash = Arrays.copyOf(undoHash, newCapacity);
+            undoHalfmove = Arrays.copyOf(undoHalfmove, newCapacity);
+        }
     }
 
     /**
@@ -187,7 +656,7 @@ public class ChessBoard {
      */
     public void removePiece(int row, int col) {
         if (row >= 0 && row < 8 && col >= 0 && col < 8) {
-            board[row][col] = 0;  // Set the square to empty (0)
+            clearSquare(row * 8 + col);  // Set the square to empty (0)
         }
     }
 
@@ -201,15 +670,160 @@ public class ChessBoard {
      */
     public void addPiece(int row, int col, int piece) {
         if (row >= 0 && row < 8 && col >= 0 && col < 8) {
-            board[row][col] = piece;  // Place the piece on the board
+            clearSquare(row * 8 + col);
+            if (piece != 0) {
+                putPiece(row * 8 + col, piece);  // Place the piece on the board
+            }
+        }
+    }
+
+    /**
+     * Places a piece on an empty square and updates the bitboards.
+     *
+     * @param sq The square index (row * 8 + col).
+     * @param piece The piece to place.
+     */
+    private void putPiece(int sq, int piece) {
+        long bit = 1L << sq;
+        int color = piece > 0 ? Bitboards.WHITE : Bitboards.BLACK;
+        squares[sq] = piece;
+        pieceBitboards[bitboardIndex(piece)] |= bit;
+        colorBitboards[color] |= bit;
+        hash ^= Zobrist.PIECE_SQUARE[bitboardIndex(piece)][sq];
+        pieceSquareScore += PieceSquareTables.score(piece, sq);
+        if (piece == KING || piece == -KING) {
+            kingSquares[color] = sq;
         }
     }
 
+    /**
+     * Empties a square and updates the bitboards. Does nothing if the square
+     * is already empty.
+     *
+     * @param sq The square index (row * 8 + col).
+     */
+    private void clearSquare(int sq) {
+        int piece = squares[sq];
+        if (piece != 0) {
+            long mask = ~(1L << sq);
+            int color = piece > 0 ? Bitboards.WHITE : Bitboards.BLACK;
+            squares[sq] = 0;
+            pieceBitboards[bitboardIndex(piece)] &= mask;
+            colorBitboards[color] &= mask;
+            hash ^= Zobrist.PIECE_SQUARE[bitboardIndex(piece)][sq];
+            pieceSquareScore -= PieceSquareTables.score(piece, sq);
+            if ((piece == KING || piece == -KING) && kingSquares[color] == sq) {
+                kingSquares[color] = -1;
+            }
+        }
+    }
+
+    /**
+     * Maps a piece code to its slot in the piece bitboard array. White pieces
+     * use slots 0-5 and black pieces use slots 6-11.
+     *
+     * @param piece The piece code (non-zero).
+     * @return The bitboard slot for the piece.
+     */
+    private static int bitboardIndex(int piece) {
+        return piece > 0 ? piece - 1 : 5 - piece;
+    }
+
+    /**
+     * Replaces the whole position with the given 8x8 layout.
+     *
+     * @param layout The pieces to place, indexed [row][col].
+     */
+    private void loadBoard(int[][] layout) {
+        Arrays.fill(squares, 0);
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorBitboards, 0L);
+        Arrays.fill(kingSquares, -1);
+        pieceSquareScore = 0;
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                if (layout[row][col] != 0) {
+                    putPiece(row * 8 + col, layout[row][col]);
+                }
+            }
+        }
+        hash = computeHash();
+    }
+
     /**
      * Switches the turn to the next player (White to Black or Black to White).
      */
     public void nextMove() {
+        if (move == Player.BLACK) {
+            fullmoveNumber++;  // A full move ends after Black's turn
+        }
         move = (move == Player.WHITE) ? Player.BLACK : Player.WHITE;
+        hash ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    /**
+     * Returns the 64-bit Zobrist key of the position. The key covers the
+     * pieces, the player to move, the castling rights and the en passant
+     * square, and is kept up to date incrementally by every move, so reading
+     * it costs nothing. Equal positions always have equal keys; different
+     * positions collide only with negligible probability.
+     *
+     * @return The position key.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Returns the number of half-moves since the last capture or pawn move.
+     *
+     * @return The halfmove clock used by the fifty-move rule.
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Returns the number of the current full move. It starts at 1 and is
+     * incremented after each move by Black.
+     *
+     * @return The fullmove number.
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Returns the material and piece-square score of the position (see
+     * PieceSquareTables). The score is kept up to date as pieces move, so
+     * this is a constant-time read.
+     *
+     * @return The score, positive when White is better.
+     */
+    public int getPieceSquareScore() {
+        return pieceSquareScore;
+    }
+
+    /**
+     * Computes the Zobrist key of the position from scratch.
+     *
+     * @return The position key.
+     */
+    private long computeHash() {
+        long key = Zobrist.CASTLING[castlingRights];
+        long pieces = occupied();
+        while (pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            key ^= Zobrist.PIECE_SQUARE[bitboardIndex(squares[sq])][sq];
+            pieces &= pieces - 1;
+        }
+        if (enPassantSquare >= 0) {
+            key ^= Zobrist.EN_PASSANT_FILE[enPassantSquare & 7];
+        }
+        if (move == Player.BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        return key;
     }
 
     /**
@@ -231,7 +845,7 @@ public class ChessBoard {
         StringBuilder sb = new StringBuilder();
         for (int row = 0; row < 8; row++) {
             for (int col = 0; col < 8; col++) {
-                int piece = board[row][col];
+                int piece = squares[row * 8 + col];
                 switch (piece) {
                     case -1 ->
                         sb.append('p');  // Black Pawn
@@ -268,236 +882,410 @@ public class ChessBoard {
 
     /**
      * Returns all legal moves for the current player. Each move is represented
-     * as an array: [fromRow, fromCol, toRow, toCol].
+     * as an array: [fromRow, fromCol, toRow, toCol]. Pawns reaching the last
+     * rank are listed once and promote to a queen.
      *
      * @param player The player whose moves are being calculated.
      * @return A list of arrays representing legal moves for the current player.
      */
     public List<int[]> getAllLegalMoves(Player player) {
-        List<int[]> legalMoves = new ArrayList<>();
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                int piece = board[row][col];
-                if ((player == Player.WHITE && piece > 0) || (player == Player.BLACK && piece < 0)) {
-                    List<int[]> pieceMoves = getMovesForPiece(row, col, piece);
+        MoveList moves = new MoveList();
+        getAllLegalMoves(player, moves);
+        return toMoveArrays(moves);
+    }
 
-                    for (int[] move : pieceMoves) {
-                        int capturedPiece = board[move[2]][move[3]];
-                        movePiece(move[0], move[1], move[2], move[3]);
+    /**
+     * Fills the given list with all legal moves for a player, as packed moves
+     * (see Move). Every promotion piece is generated. The list is cleared
+     * first and nothing is allocated, so one list can be reused for every
+     * call.
+     *
+     * @param player The player whose moves are being calculated.
+     * @param moves The list to fill.
+     */
+    public void getAllLegalMoves(Player player, MoveList moves) {
+        int us = (player == Player.WHITE) ? Bitboards.WHITE : Bitboards.BLACK;
+        int them = us ^ 1;
+        int kingSq = kingSquares[us];
+        if (kingSq < 0) {
+            getAllPotentialMoves(player, moves);  // Without a king nothing can be in check
+            return;
+        }
 
-                        boolean stillInCheck = isInCheck(player);
+        moves.clear();
+        long king = 1L << kingSq;
+        long own = colorBitboards[us];
+        long occupied = occupied();
+        long checkers = attackersTo(kingSq, them, occupied);
+
+        // The king may not step onto an attacked square. It is lifted off the
+        // board first so that a slider checking it also covers the squares
+        // behind it.
+        long kingTargets = Bitboards.KING_ATTACKS[kingSq] & ~own;
+        while (kingTargets != 0) {
+            int to = Long.numberOfTrailingZeros(kingTargets);
+            if (attackersTo(to, them, occupied ^ king) == 0) {
+                moves.add(Move.encode(kingSq, to, squares[to] != 0 ? Move.CAPTURE : 0, 0));
+            }
+            kingTargets &= kingTargets - 1;
+        }
 
-                        // Undo the move
-                        board[move[0]][move[1]] = piece;
-                        board[move[2]][move[3]] = capturedPiece;
+        if (Long.bitCount(checkers) > 1) {
+            return;  // Double check: only the king can move
+        }
 
-                        if (!stillInCheck) {
-                            legalMoves.add(move);
-                        }
-                    }
-                }
+        // Out of check, pieces may go anywhere not occupied by their own side.
+        // In check, they must capture the checker or block its line.
+        long targetMask;
+        if (checkers != 0) {
+            targetMask = checkers | Bitboards.BETWEEN[kingSq][Long.numberOfTrailingZeros(checkers)];
+        } else {
+            targetMask = ~own;
+            addCastlingMoves(us, kingSq, moves);
+        }
+
+        long pinned = pinnedPieces(kingSq, us, occupied);
+        long pieces = own & ~king;
+        while (pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            // A pinned piece may only move along the line through its king
+            long mask = ((pinned >>> sq) & 1) != 0 ? targetMask & Bitboards.LINE[kingSq][sq] : targetMask;
+            switch (Math.abs(squares[sq])) {
+                case 1 ->
+                    addLegalPawnMoves(sq, us, mask, moves);  // Pawn
+                case 2 ->
+                    addMoves(sq, Bitboards.rookAttacks(sq, occupied) & mask, moves);  // Rook
+                case 3 ->
+                    addMoves(sq, Bitboards.KNIGHT_ATTACKS[sq] & mask, moves);  // Knight
+                case 4 ->
+                    addMoves(sq, Bitboards.bishopAttacks(sq, occupied) & mask, moves);  // Bishop
+                case 5 ->
+                    addMoves(sq, Bitboards.queenAttacks(sq, occupied) & mask, moves);  // Queen
+            }
+            pieces &= pieces - 1;
+        }
+
+        addEnPassantMoves(player, us, moves);
+    }
+
+    /**
+     * Adds the pawn pushes and captures of one pawn whose destination lies in
+     * the given mask. En passant is handled separately.
+     *
+     * @param sq The square of the pawn.
+     * @param us The pawn's color (Bitboards.WHITE or Bitboards.BLACK).
+     * @param mask The squares the pawn is allowed to move to.
+     * @param moves The list to add the moves to.
+     */
+    private void addLegalPawnMoves(int sq, int us, long mask, MoveList moves) {
+        int direction = (us == Bitboards.WHITE) ? -8 : 8;
+        int startRow = (us == Bitboards.WHITE) ? 6 : 1;
+        int oneStep = sq + direction;
+
+        if (oneStep >= 0 && oneStep < 64 && squares[oneStep] == 0) {
+            if (((mask >>> oneStep) & 1) != 0) {
+                addPawnMove(sq, oneStep, 0, moves);
+            }
+            int twoSteps = oneStep + direction;
+            if ((sq >>> 3) == startRow && squares[twoSteps] == 0 && ((mask >>> twoSteps) & 1) != 0) {
+                moves.add(Move.encode(sq, twoSteps, Move.DOUBLE_PAWN_PUSH, 0));
+            }
+        }
+
+        long captures = Bitboards.PAWN_ATTACKS[us][sq] & colorBitboards[us ^ 1] & mask;
+        while (captures != 0) {
+            addPawnMove(sq, Long.numberOfTrailingZeros(captures), Move.CAPTURE, moves);
+            captures &= captures - 1;
+        }
+    }
+
+    /**
+     * Adds the castling moves available to a side that is not in check. The
+     * rook must be on its home square, the squares between king and rook
+     * must be empty, and the king may not cross an attacked square.
+     *
+     * @param us The castling color (Bitboards.WHITE or Bitboards.BLACK).
+     * @param kingSq The square of that side's king.
+     * @param moves The list to add the moves to.
+     */
+    private void addCastlingMoves(int us, int kingSq, MoveList moves) {
+        int home = (us == Bitboards.WHITE) ? 60 : 4;  // e1 or e8
+        if (kingSq != home) {
+            return;
+        }
+        int them = us ^ 1;
+        int rook = (us == Bitboards.WHITE) ? ROOK : -ROOK;
+        int kingside = (us == Bitboards.WHITE) ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+        int queenside = (us == Bitboards.WHITE) ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+
+        if ((castlingRights & kingside) != 0 && squares[home + 3] == rook
+                && squares[home + 1] == 0 && squares[home + 2] == 0
+                && !isAttackedBy(home + 1, them) && !isAttackedBy(home + 2, them)) {
+            moves.add(Move.encode(home, home + 2, Move.CASTLING, 0));
+        }
+        if ((castlingRights & queenside) != 0 && squares[home - 4] == rook
+                && squares[home - 1] == 0 && squares[home - 2] == 0 && squares[home - 3] == 0
+                && !isAttackedBy(home - 1, them) && !isAttackedBy(home - 2, them)) {
+            moves.add(Move.encode(home, home - 2, Move.CASTLING, 0));
+        }
+    }
+
+    /**
+     * Adds the legal en passant captures, if any. Because an en passant
+     * capture removes two pieces from the same rank, each candidate is played
+     * and tested rather than checked against the pin masks.
+     *
+     * @param player The player capturing.
+     * @param us The capturing color (Bitboards.WHITE or Bitboards.BLACK).
+     * @param moves The list to add the moves to.
+     */
+    private void addEnPassantMoves(Player player, int us, MoveList moves) {
+        if (enPassantSquare < 0) {
+            return;
+        }
+        int sign = (us == Bitboards.WHITE) ? 1 : -1;
+        int capturedSq = enPassantSquare + 8 * sign;  // The pawn that just double-pushed
+        if (squares[capturedSq] != -sign * PAWN || squares[enPassantSquare] != 0) {
+            return;
+        }
+
+        long attackers = Bitboards.PAWN_ATTACKS[us ^ 1][enPassantSquare] & pieceBitboards[bitboardIndex(sign * PAWN)];
+        while (attackers != 0) {
+            int move = Move.encode(Long.numberOfTrailingZeros(attackers), enPassantSquare, Move.EN_PASSANT, 0);
+            makeMove(move);
+            boolean stillInCheck = isInCheck(player);
+            unmakeMove();
+            if (!stillInCheck) {
+                moves.add(move);
             }
+            attackers &= attackers - 1;
+        }
+    }
+
+    /**
+     * Returns the pieces of one side that are pinned to their king, i.e. the
+     * only piece between the king and an enemy rook, bishop or queen.
+     *
+     * @param kingSq The square of the king.
+     * @param us The color of the king (Bitboards.WHITE or Bitboards.BLACK).
+     * @param occupied The bitboard of all occupied squares.
+     * @return The bitboard of pinned pieces.
+     */
+    private long pinnedPieces(int kingSq, int us, long occupied) {
+        int sign = (us == Bitboards.WHITE) ? -1 : 1;  // Sign of the enemy pieces
+        long queens = pieceBitboards[bitboardIndex(sign * QUEEN)];
+        long snipers = (Bitboards.rookAttacks(kingSq, 0L) & (pieceBitboards[bitboardIndex(sign * ROOK)] | queens))
+                | (Bitboards.bishopAttacks(kingSq, 0L) & (pieceBitboards[bitboardIndex(sign * BISHOP)] | queens));
+
+        long pinned = 0L;
+        while (snipers != 0) {
+            long between = Bitboards.BETWEEN[kingSq][Long.numberOfTrailingZeros(snipers)] & occupied;
+            if (between != 0 && (between & (between - 1)) == 0) {
+                pinned |= between & colorBitboards[us];
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+
+    /**
+     * Fills the given list with the potential moves of a player, as packed
+     * moves. This function does not check for checks or pins.
+     *
+     * @param player The player whose moves are being calculated.
+     * @param moves The list to fill; it is cleared first.
+     */
+    public void getAllPotentialMoves(Player player, MoveList moves) {
+        moves.clear();
+        long pieces = friendlyPieces(player == Player.WHITE);
+        while (pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            addMovesForPiece(sq, squares[sq], moves);
+            pieces &= pieces - 1;
         }
+    }
 
-        return legalMoves;
+    /**
+     * Converts packed moves to [fromRow, fromCol, toRow, toCol] arrays. Under-
+     * promotions are skipped because the array form cannot express them.
+     *
+     * @param moves The packed moves.
+     * @return A new list of move arrays.
+     */
+    private static List<int[]> toMoveArrays(MoveList moves) {
+        List<int[]> result = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int promotion = Move.promotion(move);
+            if (promotion == 0 || promotion == QUEEN) {
+                result.add(Move.toArray(move));
+            }
+        }
+        return result;
     }
 
     /**
-     * Returns a list of potential moves for a given piece. This function does
-     * not check for checks or pins.
+     * Adds the potential moves of one piece to the moves list. This function
+     * does not check for checks or pins.
      *
-     * @param row The row of the piece.
-     * @param col The column of the piece.
+     * @param sq The square of the piece.
      * @param piece The piece to find moves for.
-     * @return A list of arrays representing potential moves for the piece.
+     * @param moves The list to add the moves to.
      */
-    private List<int[]> getMovesForPiece(int row, int col, int piece) {
-        List<int[]> moves = new ArrayList<>();
+    private void addMovesForPiece(int sq, int piece, MoveList moves) {
         boolean isWhite = piece > 0;
         switch (Math.abs(piece)) {
             case 1 ->
-                addPawnMoves(row, col, isWhite, moves);  // Pawn
+                addPawnMoves(sq, isWhite, moves);  // Pawn
             case 2 ->
-                addRookMoves(row, col, isWhite, moves);  // Rook
+                addRookMoves(sq, isWhite, moves);  // Rook
             case 3 ->
-                addKnightMoves(row, col, isWhite, moves);  // Knight
+                addKnightMoves(sq, isWhite, moves);  // Knight
             case 4 ->
-                addBishopMoves(row, col, isWhite, moves);  // Bishop
+                addBishopMoves(sq, isWhite, moves);  // Bishop
             case 5 ->
-                addQueenMoves(row, col, isWhite, moves);  // Queen
+                addQueenMoves(sq, isWhite, moves);  // Queen
             case 6 ->
-                addKingMoves(row, col, isWhite, moves);  // King
+                addKingMoves(sq, isWhite, moves);  // King
         }
-        return moves;
     }
 
     // Helper methods for each type of piece
     /**
      * Adds possible pawn moves to the moves list.
      *
-     * @param row The row of the pawn.
-     * @param col The column of the pawn.
+     * @param sq The square of the pawn.
      * @param isWhite True if the pawn is white, false if black.
      * @param moves The list to add the moves to.
      */
-    private void addPawnMoves(int row, int col, boolean isWhite, List<int[]> moves) {
-        int direction = isWhite ? -1 : 1;
+    private void addPawnMoves(int sq, boolean isWhite, MoveList moves) {
+        int direction = isWhite ? -8 : 8;
         int startRow = isWhite ? 6 : 1;
+        int oneStep = sq + direction;
 
-        if (isValidMove(row + direction, col) && board[row + direction][col] == 0) {
-            moves.add(new int[]{row, col, row + direction, col});
-            if (row == startRow && board[row + 2 * direction][col] == 0) {
-                moves.add(new int[]{row, col, row + 2 * direction, col});
+        if (oneStep >= 0 && oneStep < 64 && squares[oneStep] == 0) {
+            addPawnMove(sq, oneStep, 0, moves);
+            if ((sq >>> 3) == startRow && squares[oneStep + direction] == 0) {
+                moves.add(Move.encode(sq, oneStep + direction, Move.DOUBLE_PAWN_PUSH, 0));
             }
         }
 
-        if (isValidMove(row + direction, col - 1) && isOpponentPiece(row + direction, col - 1, isWhite)) {
-            moves.add(new int[]{row, col, row + direction, col - 1});
+        int color = isWhite ? Bitboards.WHITE : Bitboards.BLACK;
+        long captures = Bitboards.PAWN_ATTACKS[color][sq] & colorBitboards[color ^ 1];
+        while (captures != 0) {
+            addPawnMove(sq, Long.numberOfTrailingZeros(captures), Move.CAPTURE, moves);
+            captures &= captures - 1;
         }
-        if (isValidMove(row + direction, col + 1) && isOpponentPiece(row + direction, col + 1, isWhite)) {
-            moves.add(new int[]{row, col, row + direction, col + 1});
+    }
+
+    /**
+     * Adds a single pawn move, expanding it into one move per promotion piece
+     * when the pawn reaches the last rank.
+     *
+     * @param from The square the pawn moves from.
+     * @param to The square the pawn moves to.
+     * @param flags The move flags.
+     * @param moves The list to add the moves to.
+     */
+    private void addPawnMove(int from, int to, int flags, MoveList moves) {
+        if (to < 8 || to >= 56) {
+            moves.add(Move.encode(from, to, flags, QUEEN));
+            moves.add(Move.encode(from, to, flags, ROOK));
+            moves.add(Move.encode(from, to, flags, BISHOP));
+            moves.add(Move.encode(from, to, flags, KNIGHT));
+        } else {
+            moves.add(Move.encode(from, to, flags, 0));
         }
     }
 
     /**
      * Adds possible rook moves to the moves list.
      *
-     * @param row The row of the rook.
-     * @param col The column of the rook.
+     * @param sq The square of the rook.
      * @param isWhite True if the rook is white, false if black.
      * @param moves The list to add the moves to.
      */
-    private void addRookMoves(int row, int col, boolean isWhite, List<int[]> moves) {
-        addLinearMoves(row, col, isWhite, moves, new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}});
+    private void addRookMoves(int sq, boolean isWhite, MoveList moves) {
+        addMoves(sq, Bitboards.rookAttacks(sq, occupied()) & ~friendlyPieces(isWhite), moves);
     }
 
     /**
      * Adds possible knight moves to the moves list.
      *
-     * @param row The row of the knight.
-     * @param col The column of the knight.
+     * @param sq The square of the knight.
      * @param isWhite True if the knight is white, false if black.
      * @param moves The list to add the moves to.
      */
-    private void addKnightMoves(int row, int col, boolean isWhite, List<int[]> moves) {
-        int[][] knightMoves = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
-        for (int[] move : knightMoves) {
-            int newRow = row + move[0];
-            int newCol = col + move[1];
-            if (isValidMove(newRow, newCol) && !isFriendlyPiece(newRow, newCol, isWhite)) {
-                moves.add(new int[]{row, col, newRow, newCol});
-            }
-        }
+    private void addKnightMoves(int sq, boolean isWhite, MoveList moves) {
+        addMoves(sq, Bitboards.KNIGHT_ATTACKS[sq] & ~friendlyPieces(isWhite), moves);
     }
 
     /**
      * Adds possible bishop moves to the moves list.
      *
-     * @param row The row of the bishop.
-     * @param col The column of the bishop.
+     * @param sq The square of the bishop.
      * @param isWhite True if the bishop is white, false if black.
      * @param moves The list to add the moves to.
      */
-    private void addBishopMoves(int row, int col, boolean isWhite, List<int[]> moves) {
-        addLinearMoves(row, col, isWhite, moves, new int[][]{{1, 1}, {1, -1}, {-1, 1}, {-1, -1}});
+    private void addBishopMoves(int sq, boolean isWhite, MoveList moves) {
+        addMoves(sq, Bitboards.bishopAttacks(sq, occupied()) & ~friendlyPieces(isWhite), moves);
     }
 
     /**
      * Adds possible queen moves to the moves list.
      *
-     * @param row The row of the queen.
-     * @param col The column of the queen.
+     * @param sq The square of the queen.
      * @param isWhite True if the queen is white, false if black.
      * @param moves The list to add the moves to.
      */
-    private void addQueenMoves(int row, int col, boolean isWhite, List<int[]> moves) {
-        addLinearMoves(row, col, isWhite, moves, new int[][]{
-            {1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}});
+    private void addQueenMoves(int sq, boolean isWhite, MoveList moves) {
+        addMoves(sq, Bitboards.queenAttacks(sq, occupied()) & ~friendlyPieces(isWhite), moves);
     }
 
     /**
      * Adds possible king moves to the moves list.
      *
-     * @param row The row of the king.
-     * @param col The column of the king.
+     * @param sq The square of the king.
      * @param isWhite True if the king is white, false if black.
      * @param moves The list to add the moves to.
      */
-    private void addKingMoves(int row, int col, boolean isWhite, List<int[]> moves) {
-        int[][] kingMoves = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-        for (int[] move : kingMoves) {
-            int newRow = row + move[0];
-            int newCol = col + move[1];
-            if (isValidMove(newRow, newCol) && !isFriendlyPiece(newRow, newCol, isWhite)) {
-                moves.add(new int[]{row, col, newRow, newCol});
-            }
-        }
+    private void addKingMoves(int sq, boolean isWhite, MoveList moves) {
+        addMoves(sq, Bitboards.KING_ATTACKS[sq] & ~friendlyPieces(isWhite), moves);
     }
 
-    // Helper methods
     // Helper methods
     /**
-     * Adds linear moves in specified directions for a piece.
+     * Adds one move for every square in the target bitboard.
      *
-     * @param row The starting row of the piece.
-     * @param col The starting column of the piece.
-     * @param isWhite True if the piece is white, false if black.
+     * @param from The square the piece moves from.
+     * @param targets The bitboard of destination squares.
      * @param moves The list to add the moves to.
-     * @param directions The array of directions to add moves for.
-     */
-    private void addLinearMoves(int row, int col, boolean isWhite, List<int[]> moves, int[][] directions) {
-        for (int[] direction : directions) {
-            int newRow = row + direction[0];
-            int newCol = col + direction[1];
-            while (isValidMove(newRow, newCol) && !isFriendlyPiece(newRow, newCol, isWhite)) {
-                moves.add(new int[]{row, col, newRow, newCol});
-                if (board[newRow][newCol] != 0) { // Stop at the first opponent piece
-                    break;
-                }
-                newRow += direction[0];
-                newCol += direction[1];
-            }
-        }
-    }
-
-    /**
-     * Checks if the given coordinates are within the bounds of the chessboard.
-     *
-     * @param row The row index to check.
-     * @param col The column index to check.
-     * @return True if the coordinates are valid, false otherwise.
      */
-    private boolean isValidMove(int row, int col) {
-        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    private void addMoves(int from, long targets, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            moves.add(Move.encode(from, to, squares[to] != 0 ? Move.CAPTURE : 0, 0));
+            targets &= targets - 1;  // Clear the lowest set bit
+        }
     }
 
     /**
-     * Determines if a piece at the given coordinates is friendly to the current
-     * player.
+     * Returns the bitboard of all occupied squares.
      *
-     * @param row The row index of the piece.
-     * @param col The column index of the piece.
-     * @param isWhite True if checking for a white piece, false for a black
-     * piece.
-     * @return True if the piece is friendly, false otherwise.
+     * @return The squares occupied by either color.
      */
-    private boolean isFriendlyPiece(int row, int col, boolean isWhite) {
-        int piece = board[row][col];
-        return (isWhite && piece > 0) || (!isWhite && piece < 0);
+    private long occupied() {
+        return colorBitboards[Bitboards.WHITE] | colorBitboards[Bitboards.BLACK];
     }
 
     /**
-     * Determines if a piece at the given coordinates is an opponent's piece.
+     * Returns the bitboard of squares occupied by one side.
      *
-     * @param row The row index of the piece.
-     * @param col The column index of the piece.
-     * @param isWhite True if checking for a white piece's opponent, false for
-     * black.
-     * @return True if the piece is an opponent's piece, false otherwise.
+     * @param isWhite True for White's pieces, false for Black's.
+     * @return The squares occupied by that side.
      */
-    private boolean isOpponentPiece(int row, int col, boolean isWhite) {
-        int piece = board[row][col];
-        return (isWhite && piece < 0) || (!isWhite && piece > 0);
+    private long friendlyPieces(boolean isWhite) {
+        return colorBitboards[isWhite ? Bitboards.WHITE : Bitboards.BLACK];
     }
 
     /**
@@ -508,7 +1296,7 @@ public class ChessBoard {
         for (int row = 0; row < 8; row++) {
             //System.out.print(row + " ");  // Row index
             for (int col = 0; col < 8; col++) {
-                int piece = board[row][col];
+                int piece = squares[row * 8 + col];
                 char displayChar;
                 displayChar = switch (piece) {
                     case -1 ->
@@ -557,8 +1345,6 @@ public class ChessBoard {
         return "" + file + rank;
     }
 
-    boolean checkingForCheck = false;
-
     /**
      * Checks if the king of the specified player is in check.
      *
@@ -566,46 +1352,86 @@ public class ChessBoard {
      * @return True if the king is in check, false otherwise.
      */
     public boolean isInCheck(Player player) {
-        int kingRow = -1, kingCol = -1;
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                int piece = board[row][col];
-                if ((player == Player.WHITE && piece == 6) || (player == Player.BLACK && piece == -6)) {
-                    kingRow = row;
-                    kingCol = col;
-                    break;
-                }
-            }
-            if (kingRow != -1) {
-                break;
-            }
+        int color = (player == Player.WHITE) ? Bitboards.WHITE : Bitboards.BLACK;
+        int kingSq = kingSquares[color];
+        if (kingSq < 0) {
+            return false;  // No king on the board
         }
+        return isAttackedBy(kingSq, color ^ 1);
+    }
 
-        Player opponent = (player == Player.WHITE) ? Player.BLACK : Player.WHITE;
-
-        // Use this simplified call that doesn't check for checks itself
-        List<int[]> opponentMoves = getAllPotentialMoves(opponent);
+    /**
+     * Returns the square of a player's king.
+     *
+     * @param player The player whose king to find.
+     * @return The square index (row * 8 + col), or -1 if that player has no
+     * king on the board.
+     */
+    public int getKingSquare(Player player) {
+        return kingSquares[player == Player.WHITE ? Bitboards.WHITE : Bitboards.BLACK];
+    }
 
-        for (int[] move : opponentMoves) {
-            if (move[2] == kingRow && move[3] == kingCol) {
-                return true;  // The king is in check
-            }
+    /**
+     * Determines whether a square is attacked by any piece of the given
+     * player. The lookup works outward from the square using the attack
+     * tables, so it costs a few table lookups and builds no move lists.
+     *
+     * @param square The square index (row * 8 + col) to test.
+     * @param byColor The attacking player.
+     * @return True if the square is attacked by that player.
+     */
+    public boolean isSquareAttacked(int square, Player byColor) {
+        if (square < 0 || square >= 64) {
+            throw new IllegalArgumentException("Position out of bounds");
         }
+        return isAttackedBy(square, byColor == Player.WHITE ? Bitboards.WHITE : Bitboards.BLACK);
+    }
+
+    /**
+     * Determines whether any piece of the given color attacks a square. The
+     * lookup works outward from the target square, so no move lists are built.
+     *
+     * @param sq The square to test.
+     * @param color The attacking color (Bitboards.WHITE or Bitboards.BLACK).
+     * @return True if the square is attacked by that color.
+     */
+    private boolean isAttackedBy(int sq, int color) {
+        return attackersTo(sq, color, occupied()) != 0;
+    }
 
-        return false;
+    /**
+     * Returns the pieces of the given color that attack a square, treating
+     * only the squares in the given occupancy as blockers.
+     *
+     * @param sq The square to test.
+     * @param color The attacking color (Bitboards.WHITE or Bitboards.BLACK).
+     * @param occupied The blockers for sliding pieces.
+     * @return The bitboard of attacking pieces.
+     */
+    private long attackersTo(int sq, int color, long occupied) {
+        int sign = (color == Bitboards.WHITE) ? 1 : -1;
+        long queens = pieceBitboards[bitboardIndex(sign * QUEEN)];
+
+        // A pawn of the attacking color attacks sq if a pawn of the other
+        // color standing on sq would attack the pawn's square.
+        return (Bitboards.PAWN_ATTACKS[color ^ 1][sq] & pieceBitboards[bitboardIndex(sign * PAWN)])
+                | (Bitboards.KNIGHT_ATTACKS[sq] & pieceBitboards[bitboardIndex(sign * KNIGHT)])
+                | (Bitboards.KING_ATTACKS[sq] & pieceBitboards[bitboardIndex(sign * KING)])
+                | (Bitboards.rookAttacks(sq, occupied) & (pieceBitboards[bitboardIndex(sign * ROOK)] | queens))
+                | (Bitboards.bishopAttacks(sq, occupied) & (pieceBitboards[bitboardIndex(sign * BISHOP)] | queens));
     }
 
+    /**
+     * Returns the potential moves of a player. This function does not check
+     * for checks or pins.
+     *
+     * @param player The player whose moves are being calculated.
+     * @return A list of arrays representing potential moves for the player.
+     */
     public List<int[]> getAllPotentialMoves(Player player) {
-        List<int[]> potentialMoves = new ArrayList<>();
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                int piece = board[row][col];
-                if ((player == Player.WHITE && piece > 0) || (player == Player.BLACK && piece < 0)) {
-                    potentialMoves.addAll(getMovesForPiece(row, col, piece));
-                }
-            }
-        }
-        return potentialMoves;
+        MoveList moves = new MoveList();
+        getAllPotentialMoves(player, moves);
+        return toMoveArrays(moves);
     }
 
     /**
@@ -637,7 +1463,7 @@ public class ChessBoard {
      */
     public int getPieceAt(int row, int col) {
         if (row >= 0 && row < 8 && col >= 0 && col < 8) {
-            return board[row][col];
+            return squares[row * 8 + col];
         } else {
             throw new IllegalArgumentException("Position out of bounds");
         }
@@ -647,39 +1473,46 @@ public class ChessBoard {
      * Resets the chessboard to the initial starting position.
      */
     public void resetBoard() {
-        // Set the board to the initial starting position
-        int[][] initialBoard = {
-            {-2, -3, -4, -5, -6, -4, -3, -2}, // Row 0: Black's major pieces
-            {-1, -1, -1, -1, -1, -1, -1, -1}, // Row 1: Black's pawns
-            {0, 0, 0, 0, 0, 0, 0, 0}, // Empty squares
-            {0, 0, 0, 0, 0, 0, 0, 0}, // Empty squares
-            {0, 0, 0, 0, 0, 0, 0, 0}, // Empty squares
-            {0, 0, 0, 0, 0, 0, 0, 0}, // Empty squares
-            {1, 1, 1, 1, 1, 1, 1, 1}, // Row 6: White's pawns
-            {2, 3, 4, 5, 6, 4, 3, 2} // Row 7: White's major pieces
-        };
-
-        // Copy the initial board setup to the current board
-        for (int i = 0; i < board.length; i++) {
-            board[i] = initialBoard[i].clone();
-        }
-
         // Reset the move tracking and set the current player to White
         move = Player.WHITE;
+        castlingRights = ALL_CASTLING;
+        enPassantSquare = -1;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        undoSize = 0;
         lastMove = null; // Clear the last move tracking if necessary
 
+        // Set the board to the initial starting position
+        loadBoard(INITIAL_BOARD);
+
     }
 
+    /**
+     * Creates an independent copy of the position: pieces, side to move,
+     * castling rights, en passant square, move counters, position key and
+     * score. The move history is not copied, so moves made before the copy
+     * cannot be unmade on it. Copies share no mutable state, so each can be
+     * searched on its own thread.
+     *
+     * @return The new board.
+     */
     public ChessBoard copy() {
-        ChessBoard newBoard = new ChessBoard();  // Create a new ChessBoard instance
+        ChessBoard newBoard = new ChessBoard(COPY_UNDO_CAPACITY);  // Empty board, filled below
 
         // Copy the board state
-        for (int i = 0; i < 8; i++) {
-            newBoard.board[i] = this.board[i].clone();  // Deep copy each row
-        }
+        System.arraycopy(this.squares, 0, newBoard.squares, 0, 64);
+        System.arraycopy(this.pieceBitboards, 0, newBoard.pieceBitboards, 0, 12);
+        System.arraycopy(this.colorBitboards, 0, newBoard.colorBitboards, 0, 2);
+        System.arraycopy(this.kingSquares, 0, newBoard.kingSquares, 0, 2);
 
-        // Copy the turn state
+        // Copy the turn, castling, en passant and move counter state
         newBoard.move = this.move;
+        newBoard.castlingRights = this.castlingRights;
+        newBoard.enPassantSquare = this.enPassantSquare;
+        newBoard.halfmoveClock = this.halfmoveClock;
+        newBoard.fullmoveNumber = this.fullmoveNumber;
+        newBoard.hash = this.hash;
+        newBoard.pieceSquareScore = this.pieceSquareScore;
 
         // Copy the last move if needed
         if (this.lastMove != null) {
@@ -689,4 +1522,49 @@ public class ChessBoard {
         return newBoard;
     }
 
+    /**
+     * Captures the position in an immutable snapshot that can be handed to
+     * other threads.
+     *
+     * @return The snapshot, with version 0.
+     */
+    public PositionSnapshot snapshot() {
+        return snapshot(0);
+    }
+
+    /**
+     * Captures the position in an immutable snapshot.
+     *
+     * @param version The version to record in the snapshot.
+     * @return The snapshot.
+     */
+    PositionSnapshot snapshot(long version) {
+        byte[] pieces = new byte[64];
+        copySquaresTo(pieces, 0);
+        return new PositionSnapshot(pieces, move, castlingRights, enPassantSquare,
+                halfmoveClock, fullmoveNumber, hash, version);
+    }
+
+    /**
+     * Creates a board holding the position of a snapshot.
+     *
+     * @param snapshot The position to load.
+     * @return A new board without move history.
+     */
+    static ChessBoard fromSnapshot(PositionSnapshot snapshot) {
+        int[][] layout = new int[8][8];
+        for (int sq = 0; sq < 64; sq++) {
+            layout[sq / 8][sq % 8] = snapshot.pieceAt(sq);
+        }
+
+        ChessBoard board = new ChessBoard(UNDO_CAPACITY);
+        board.move = snapshot.currentPlayer();
+        board.castlingRights = snapshot.castlingRights();
+        board.enPassantSquare = snapshot.enPassantSquare();
+        board.halfmoveClock = snapshot.getHalfmoveClock();
+        board.fullmoveNumber = snapshot.getFullmoveNumber();
+        board.loadBoard(layout);
+        return board;
+    }
+
 }
@@ -1,7 +1,6 @@
 package com.chess.stockfish;
 
 import com.chess.montecarlo.MonteCarloMoves;
-import com.chess.montecarlo.SharedBoard;
 import com.chess.window.ChessWindow;
 import javafx.application.Platform;
 
@@ -17,20 +16,43 @@ public class ChessGame {
 
     private ChessWindow chessWindow;        // UI component for the chessboard
     private StockfishConnector stockfish;   // Stockfish AI for White
+    private final StockfishPool pool;       // Supplies the engine, or null to start our own
     private MonteCarloMoves monteCarlo;     // Monte Carlo for Black
+    private final GameState game;           // Position of the game, changed only by the game thread
     private List<String> rawMoves;          // Move history
+    private String syncFen;                 // Position after the last capture or pawn move
+    private final List<String> syncMoves;   // Moves played since syncFen, sent to Stockfish after it
     private boolean isWhiteToMove = true;   // Track turns
 
+    private static final long STOCKFISH_TIMEOUT_MS = 1500; // Deadline for a 1 second search
+
     /**
      * Constructor initializes the game with the ChessWindow.
      *
      * @param chessWindow The UI representation of the chessboard.
      */
     public ChessGame(ChessWindow chessWindow) {
+        this(chessWindow, null);
+    }
+
+    /**
+     * Constructor initializes the game with the ChessWindow and an engine
+     * pool. The game leases its Stockfish engine from the pool when it
+     * starts and returns it when it ends, instead of starting a process.
+     *
+     * @param chessWindow The UI representation of the chessboard.
+     * @param pool The pool to lease White's engine from, or null to start a
+     * dedicated engine.
+     */
+    public ChessGame(ChessWindow chessWindow, StockfishPool pool) {
         this.chessWindow = chessWindow;
-        this.stockfish = new StockfishConnector();
-        this.monteCarlo = new MonteCarloMoves();
+        this.pool = pool;
+        this.game = new GameState();
+        this.stockfish = pool == null ? new StockfishConnector() : null;
+        this.monteCarlo = new MonteCarloMoves(game);
         this.rawMoves = new ArrayList<>();
+        this.syncFen = game.snapshot().toFen();
+        this.syncMoves = new ArrayList<>();
     }
 
     /**
@@ -41,13 +63,13 @@ public class ChessGame {
      * @throws InterruptedException If UI updates are interrupted.
      */
     public void startOneGame() throws IOException, InterruptedException {
-        if (stockfish.startEngine()) {
+        if (acquireEngine()) {
             try {
                 initializeStockfish();
                 displayInitialBoard();
                 playOneGame();
             } finally {
-                stockfish.stopEngine();
+                releaseEngine();
             }
         } else {
             System.out.println("Failed to start Stockfish engine.");
@@ -55,19 +77,45 @@ public class ChessGame {
     }
 
     public void startMultipleGames() throws IOException, InterruptedException {
-        if (stockfish.startEngine()) {
+        if (acquireEngine()) {
             try {
                 initializeStockfish();
                 displayInitialBoard();
                 playMultipleGames();
             } finally {
-                stockfish.stopEngine();
+                releaseEngine();
             }
         } else {
             System.out.println("Failed to start Stockfish engine.");
         }
     }
 
+    /**
+     * Starts a dedicated engine, or leases one from the pool.
+     *
+     * @return True if an engine is available.
+     * @throws InterruptedException If interrupted while waiting for a pooled engine.
+     */
+    private boolean acquireEngine() throws InterruptedException {
+        if (pool == null) {
+            return stockfish.startEngine();
+        }
+        stockfish = pool.lease();
+        return true;
+    }
+
+    /**
+     * Stops the dedicated engine, or returns the leased one to the pool.
+     */
+    private void releaseEngine() {
+        if (pool == null) {
+            stockfish.stopEngine();
+        } else {
+            pool.release(stockfish);
+            stockfish = null;
+        }
+    }
+
     /**
      * Initializes Stockfish for the game.
      *
@@ -85,15 +133,30 @@ public class ChessGame {
      * Displays the initial board state.
      */
     private void displayInitialBoard() {
+        PositionSnapshot position = game.snapshot();
         Platform.runLater(() -> {
             try {
-                chessWindow.displayChessPieces(-1, -1);
+                chessWindow.showPosition(position);
             } catch (Exception e) {
                 e.printStackTrace();
             }
         });
     }
 
+    /**
+     * Sets up the starting position for a new game. Runs on the game thread,
+     * so the board and move history are never reset while a move is being
+     * searched or played.
+     */
+    private void resetGame() {
+        game.reset();
+        rawMoves.clear();
+        syncFen = game.snapshot().toFen();
+        syncMoves.clear();
+        isWhiteToMove = true;  // Ensure White always starts
+        displayInitialBoard();
+    }
+
     /**
      * Main game loop where Stockfish plays White and MonteCarloMoves plays
      * Black.
@@ -113,14 +176,14 @@ public class ChessGame {
                 break;
             }
 
-            // Apply the move and update UI before switching turns
+            // The move is already on the board; show the new position before switching turns
             updateMoveHistory(move);
+            PositionSnapshot position = game.snapshot();
             CountDownLatch latch = new CountDownLatch(1);
 
             Platform.runLater(() -> {
                 try {
-                    chessWindow.movePiece(move);
-                    chessWindow.displayChessPieces(-1, -1);
+                    chessWindow.showPosition(position);
                 } catch (Exception e) {
                     e.printStackTrace();
                 } finally {
@@ -130,20 +193,15 @@ public class ChessGame {
 
             latch.await(); // Ensure UI update is complete before continuing
 
-            // Print the board to verify shared state
+            // Print the position that was just published
             System.out.println("Updated Board:");
-            SharedBoard.getBoard().printBoardWithIndices();
+            System.out.println(position);
 
             // Check for checkmate after move execution
-            if (SharedBoard.getBoard().isCheckmate(SharedBoard.getBoard().currentPlayer())) {
+            if (game.isCheckmate()) {
                 System.out.println("Checkmate detected! Resetting board and starting a new game...");
 
-                Platform.runLater(() -> {
-                    SharedBoard.getBoard().resetBoard();
-                    rawMoves.clear();
-                });
-
-                isWhiteToMove = true;  // Ensure White always starts
+                resetGame();
                 Thread.sleep(2000);
                 playOneGame();  // Restart the game loop
                 return;
@@ -164,11 +222,7 @@ public class ChessGame {
             System.out.println("Starting a new game...");
 
             // Reset the board properly before playing the next game
-            Platform.runLater(() -> {
-                SharedBoard.getBoard().resetBoard();
-                rawMoves.clear();
-                isWhiteToMove = true;
-            });
+            resetGame();
 
             Thread.sleep(2000);
             playOneGame();
@@ -178,19 +232,28 @@ public class ChessGame {
     /**
      * Generates a move for White using Stockfish.
      */
-    private String makeStockfishMove() throws IOException {
-        stockfish.sendCommand("position startpos moves " + getMoveHistory());
-        stockfish.sendCommand("go movetime 1000");
-        String bestMove = stockfish.getBestMove();
+    private String makeStockfishMove() throws IOException, InterruptedException {
+        stockfish.updateGameState(syncFen, syncMoves);  // Bounded by the fifty-move rule, not the game length
+        String bestMove;
+        try {
+            // Stopped, and if need be restarted, when the deadline passes
+            bestMove = stockfish.searchWithin("movetime 1000", STOCKFISH_TIMEOUT_MS, null).getBestMove();
+        } catch (IOException e) {
+            System.out.println("Stockfish failed to move: " + e.getMessage());
+            return null;
+        }
+
+        if (bestMove.equals("(none)")) {
+            return "0000"; // No legal moves for White
+        }
 
-        if (bestMove != null && !bestMove.equals("0000")) {
+        if (!bestMove.equals("0000")) {
             int fromCol = bestMove.charAt(0) - 'a';
             int fromRow = 8 - Character.getNumericValue(bestMove.charAt(1));
             int toCol = bestMove.charAt(2) - 'a';
             int toRow = 8 - Character.getNumericValue(bestMove.charAt(3));
 
-            SharedBoard.getBoard().movePiece(fromRow, fromCol, toRow, toCol);
-            SharedBoard.getBoard().nextMove(); // <<<< HERE: CHANGE TURN AFTER MOVE
+            game.makeMove(fromRow, fromCol, toRow, toCol); // Also changes the turn
         }
 
         return bestMove;
@@ -205,8 +268,7 @@ public class ChessGame {
             return "0000"; // Game over
         }
 
-        SharedBoard.getBoard().movePiece(move[0], move[1], move[2], move[3]);
-        SharedBoard.getBoard().nextMove(); // Explicit turn change (Black -> White)
+        game.makeMove(move[0], move[1], move[2], move[3]); // Turn changes (Black -> White)
 
         return toChessNotation(move);
     }
@@ -224,10 +286,23 @@ public class ChessGame {
     }
 
     /**
-     * Updates the move history with the given move.
+     * Updates the move history with the given move, once it has been played
+     * on the game state, and the moves Stockfish is sent.
+     *
+     * @param move The move in UCI format (e.g., "e2e4").
      */
     public void updateMoveHistory(String move) {
         rawMoves.add(move);
+
+        // A capture or pawn move can never be undone, so earlier positions cannot
+        // repeat: restart the engine's move list from the new position
+        PositionSnapshot position = game.snapshot();
+        if (position.getHalfmoveClock() == 0) {
+            syncFen = position.toFen();
+            syncMoves.clear();
+        } else {
+            syncMoves.add(move);
+        }
     }
 
     /**
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: Contestant
+ *
+ * One of the two sides of a tournament: a Stockfish setting or a Monte Carlo
+ * search setting. A contestant is only a description; every game creates
+ * fresh GamePlayers from it, so games running at the same time share
+ * nothing but the engine pool.
+ *
+ * Contestants are usually given on the command line as a spec:
+ * - `stockfish` or `stockfish:movetime=50`
+ * - `mcts:time=100,playouts=5000,workers=2,tree`
+ */
+package com.chess.stockfish;
+
+import com.chess.montecarlo.MonteCarloTree;
+import com.chess.montecarlo.SearchLimits;
+
+/**
+ * A player setting that takes part in a tournament.
+ */
+public final class Contestant {
+
+    private enum Type {
+        STOCKFISH,
+        MONTE_CARLO
+    }
+
+    private final Type type;
+    private final String name;
+    private final long movetimeMs; // Stockfish time per move
+    private final int workers; // Monte Carlo threads per move
+    private final MonteCarloTree.Parallelism parallelism;
+    private final SearchLimits limits; // Monte Carlo budget per move
+
+    private Contestant(Type type, String name, long movetimeMs, int workers,
+            MonteCarloTree.Parallelism parallelism, SearchLimits limits) {
+        this.type = type;
+        this.name = name;
+        this.movetimeMs = movetimeMs;
+        this.workers = workers;
+        this.parallelism = parallelism;
+        this.limits = limits;
+    }
+
+    /**
+     * A Stockfish contestant that searches each move for a fixed time.
+     *
+     * @param name The name used in reports.
+     * @param movetimeMs The time per move in milliseconds.
+     * @return The contestant.
+     * @throws IllegalArgumentException If movetimeMs is not positive.
+     */
+    public static Contestant stockfish(String name, long movetimeMs) {
+        if (movetimeMs <= 0) {
+            throw new IllegalArgumentException("Move time must be positive: " + movetimeMs);
+        }
+        return new Contestant(Type.STOCKFISH, name, movetimeMs, 0, null, null);
+    }
+
+    /**
+     * A Monte Carlo Tree Search contestant.
+     *
+     * @param name The name used in reports.
+     * @param workers The number of search threads per move (at least 1).
+     * @param parallelism How the workers share the search.
+     * @param limits The budget of each move's search.
+     * @return The contestant.
+     * @throws IllegalArgumentException If workers is less than 1.
+     */
+    public static Contestant monteCarlo(String name, int workers, MonteCarloTree.Parallelism parallelism,
+            SearchLimits limits) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Worker count must be at least 1: " + workers);
+        }
+        return new Contestant(Type.MONTE_CARLO, name, 0, workers, parallelism, limits);
+    }
+
+    /**
+     * Parses a command-line spec such as "stockfish:movetime=50" or
+     * "mcts:time=100,playouts=5000,workers=2,tree". Settings that are left
+     * out default to 100 ms per move, no playout limit, one worker and root
+     * parallelism. The spec is used as the contestant's name.
+     *
+     * @param spec The spec.
+     * @return The contestant.
+     * @throws IllegalArgumentException If the spec is malformed.
+     */
+    public static Contestant parse(String spec) {
+        int colon = spec.indexOf(':');
+        String kind = colon < 0 ? spec : spec.substring(0, colon);
+        long time = 100;
+        long playouts = SearchLimits.UNLIMITED;
+        int workers = 1;
+        MonteCarloTree.Parallelism parallelism = MonteCarloTree.Parallelism.ROOT;
+
+        if (colon >= 0) {
+            for (String setting : spec.substring(colon + 1).split(",")) {
+                String[] parts = setting.split("=", 2);
+                String value = parts.length == 2 ? parts[1] : null; // parseLong rejects null
+                try {
+                    switch (parts[0]) {
+                        case "movetime", "time" ->
+                            time = Long.parseLong(value);
+                        case "playouts" ->
+                            playouts = Long.parseLong(value);
+                        case "workers" ->
+                            workers = Integer.parseInt(value);
+                        case "tree" ->
+                            parallelism = MonteCarloTree.Parallelism.TREE;
+                        default ->
+                            throw new IllegalArgumentException("Unknown setting \"" + setting + "\" in " + spec);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad value in \"" + setting + "\" of " + spec, e);
+                }
+            }
+        }
+
+        return switch (kind) {
+            case "stockfish" ->
+                stockfish(spec, time);
+            case "mcts" ->
+                monteCarlo(spec, workers, parallelism,
+                        new SearchLimits(time, playouts, SearchLimits.UNLIMITED, SearchLimits.UNLIMITED));
+            default ->
+                throw new IllegalArgumentException("Unknown contestant: " + spec + " (expected stockfish or mcts)");
+        };
+    }
+
+    /**
+     * @return True if each game needs a Stockfish engine from the pool.
+     */
+    public boolean needsEngine() {
+        return type == Type.STOCKFISH;
+    }
+
+    /**
+     * Creates the player for one game.
+     *
+     * @param engine A started engine leased for this game, or null if
+     * needsEngine() is false.
+     * @return A new player.
+     */
+    public GamePlayer createPlayer(StockfishConnector engine) {
+        return switch (type) {
+            case STOCKFISH ->
+                // Allow a second past the move time before the search is stopped
+                new StockfishPlayer(engine, "movetime " + movetimeMs, movetimeMs + 1000, name);
+            case MONTE_CARLO ->
+                new MonteCarloPlayer(workers, parallelism, limits, name);
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
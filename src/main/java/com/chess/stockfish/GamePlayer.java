@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: GamePlayer
+ *
+ * One side of a headless game. A player is told when a new game starts and
+ * is then asked for a move whenever it is its turn. The position is passed
+ * both as the game itself, for players that search its snapshots, and as a
+ * FEN plus the moves played since, which is how a UCI engine is kept in sync
+ * without resending the whole game.
+ */
+package com.chess.stockfish;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A side in a game played without the window.
+ */
+public interface GamePlayer {
+
+    /**
+     * Called before the first move of every game.
+     *
+     * @param game The game about to be played.
+     * @throws IOException If the player's engine fails.
+     */
+    void newGame(GameState game) throws IOException;
+
+    /**
+     * Chooses a move for the side to move.
+     *
+     * @param game The game being played.
+     * @param baseFen The position after the last capture or pawn move.
+     * @param movesSinceBase The UCI moves played since baseFen.
+     * @return The move in UCI notation, or null if the player has no move.
+     * @throws IOException If the player's engine fails.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    String chooseMove(GameState game, String baseFen, List<String> movesSinceBase)
+            throws IOException, InterruptedException;
+
+    /**
+     * @return The name used in game reports.
+     */
+    String getName();
+}
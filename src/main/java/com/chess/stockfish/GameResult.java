@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: GameResult
+ *
+ * The outcome of one headless game: who won, why the game ended, how long
+ * it was and the final position, so a game can be reported or replayed
+ * from its last position.
+ */
+package com.chess.stockfish;
+
+/**
+ * Immutable result of a finished game.
+ */
+public final class GameResult {
+
+    /**
+     * The result of the game from White's point of view.
+     */
+    public enum Outcome {
+        WHITE_WINS("1-0"),
+        BLACK_WINS("0-1"),
+        DRAW("1/2-1/2");
+
+        private final String notation; // PGN result
+
+        Outcome(String notation) {
+            this.notation = notation;
+        }
+
+        /**
+         * @return The result as written in PGN, e.g., "1-0".
+         */
+        public String getNotation() {
+            return notation;
+        }
+
+        /**
+         * @return White's score: 1 for a win, 0.5 for a draw, 0 for a loss.
+         */
+        public double whiteScore() {
+            return switch (this) {
+                case WHITE_WINS -> 1.0;
+                case BLACK_WINS -> 0.0;
+                case DRAW -> 0.5;
+            };
+        }
+    }
+
+    private final Outcome outcome;
+    private final String reason; // e.g., "checkmate" or "threefold repetition"
+    private final int plies; // Half-moves played
+    private final String finalFen;
+    private final long durationMs;
+
+    /**
+     * Creates a game result.
+     *
+     * @param outcome Who won.
+     * @param reason Why the game ended.
+     * @param plies The number of half-moves played.
+     * @param finalFen The final position.
+     * @param durationMs The length of the game in milliseconds.
+     */
+    public GameResult(Outcome outcome, String reason, int plies, String finalFen, long durationMs) {
+        this.outcome = outcome;
+        this.reason = reason;
+        this.plies = plies;
+        this.finalFen = finalFen;
+        this.durationMs = durationMs;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public int getPlies() {
+        return plies;
+    }
+
+    public String getFinalFen() {
+        return finalFen;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    @Override
+    public String toString() {
+        return outcome.getNotation() + " (" + reason + ", " + plies + " plies, " + durationMs + " ms)";
+    }
+}
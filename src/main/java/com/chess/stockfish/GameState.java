@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: GameState
+ *
+ * The owner of the position of the game being played. Only the game thread
+ * changes the position, through the methods of this class, and every change
+ * publishes a new PositionSnapshot through a volatile reference. The window
+ * and the engines read the latest snapshot without locking and without
+ * copying the board; a reader always sees a complete position, never one
+ * that is halfway through a move or a reset.
+ *
+ * Writers are synchronized, so the board stays consistent even if more than
+ * one thread ever changes it, but readers never take the lock.
+ */
+package com.chess.stockfish;
+
+/**
+ * Single-writer game position that publishes an immutable snapshot after
+ * every change.
+ */
+public final class GameState {
+
+    private ChessBoard board = new ChessBoard(); // Only used while holding the lock
+    private final MoveList legalMoves = new MoveList(); // Move buffer, only used while holding the lock
+    private static final int QUEEN = 5;
+    private long version; // Version of the last published snapshot
+    private volatile PositionSnapshot snapshot; // Latest published position
+
+    /**
+     * Creates a game in the standard starting position.
+     */
+    public GameState() {
+        publish();
+    }
+
+    /**
+     * Returns the current position. The snapshot never changes, so it can be
+     * read for as long as needed while the game moves on.
+     *
+     * @return The latest published snapshot.
+     */
+    public PositionSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Plays a move for the side to move and hands the turn to the other side.
+     * Castling, en passant and promotion (to a queen) are recognized from the
+     * squares.
+     *
+     * @param fromRow The starting row of the piece.
+     * @param fromCol The starting column of the piece.
+     * @param toRow The destination row of the piece.
+     * @param toCol The destination column of the piece.
+     * @return The snapshot of the new position.
+     */
+    public synchronized PositionSnapshot makeMove(int fromRow, int fromCol, int toRow, int toCol) {
+        board.movePiece(fromRow, fromCol, toRow, toCol);
+        board.nextMove();
+        return publish();
+    }
+
+    /**
+     * Plays a move given in UCI notation (e.g., "e2e4" or "e7e8n") for the
+     * side to move, after checking that it is legal. A promotion without a
+     * piece letter promotes to a queen.
+     *
+     * @param uciMove The move.
+     * @return The snapshot of the new position.
+     * @throws IllegalArgumentException If the move is malformed or illegal.
+     */
+    public synchronized PositionSnapshot makeMove(String uciMove) {
+        char[] chars = uciMove.toCharArray();
+        int parsed = UciInfoParser.parseMove(chars, 0, chars.length);
+        if (parsed < 0) {
+            throw new IllegalArgumentException("Not a move: " + uciMove);
+        }
+        int promotion = Move.promotion(parsed) == 0 ? QUEEN : Move.promotion(parsed);
+
+        board.getAllLegalMoves(board.currentPlayer(), legalMoves);
+        for (int i = 0; i < legalMoves.size(); i++) {
+            int move = legalMoves.get(i);
+            if (Move.from(move) == Move.from(parsed) && Move.to(move) == Move.to(parsed)
+                    && (Move.promotion(move) == 0 || Move.promotion(move) == promotion)) {
+                board.makeMove(move);
+                return publish();
+            }
+        }
+        throw new IllegalArgumentException("Illegal move " + uciMove + " in " + snapshot.toFen());
+    }
+
+    /**
+     * @return True if the side to move has at least one legal move.
+     */
+    public synchronized boolean hasLegalMoves() {
+        board.getAllLegalMoves(board.currentPlayer(), legalMoves);
+        return !legalMoves.isEmpty();
+    }
+
+    /**
+     * @return True if the side to move is in check.
+     */
+    public synchronized boolean isInCheck() {
+        return board.isInCheck(board.currentPlayer());
+    }
+
+    /**
+     * Sets up the standard starting position for a new game.
+     *
+     * @return The snapshot of the starting position.
+     */
+    public synchronized PositionSnapshot reset() {
+        board.resetBoard();
+        return publish();
+    }
+
+    /**
+     * Sets up a position given in FEN for a new game, e.g. an opening from a
+     * test suite.
+     *
+     * @param fen The position in Forsyth-Edwards Notation.
+     * @return The snapshot of the position.
+     * @throws IllegalArgumentException If the FEN is malformed; the current
+     * position is kept.
+     */
+    public synchronized PositionSnapshot reset(String fen) {
+        board = ChessBoard.fromFen(fen);
+        return publish();
+    }
+
+    /**
+     * @return True if the side to move is checkmated.
+     */
+    public synchronized boolean isCheckmate() {
+        return board.isCheckmate(board.currentPlayer());
+    }
+
+    /**
+     * Publishes the board as the next snapshot version. Called with the lock
+     * held.
+     *
+     * @return The published snapshot.
+     */
+    private PositionSnapshot publish() {
+        PositionSnapshot next = board.snapshot(++version);
+        snapshot = next;
+        return next;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: HeadlessGame
+ *
+ * Plays one game between two GamePlayers without the window: no JavaFX,
+ * no waits between moves and no printed boards, so games run as fast as
+ * the players can choose their moves. Every move is checked for legality
+ * before it is played and the game is adjudicated by the rules alone:
+ * checkmate, stalemate, the fifty-move rule, threefold repetition and
+ * insufficient material end it, and a game that reaches the ply limit is
+ * scored as a draw. A player that makes an illegal move or no move while it
+ * still has legal moves loses the game.
+ *
+ * The engines are kept in sync the same way ChessGame does it: from the
+ * position after the last capture or pawn move plus the moves played since.
+ * Repetitions can only occur within that same stretch of moves, so the
+ * position hashes are tracked over it as well.
+ */
+package com.chess.stockfish;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A game between two players that runs without a user interface.
+ */
+public final class HeadlessGame {
+
+    private final GamePlayer white;
+    private final GamePlayer black;
+    private final int maxPlies; // The game is drawn after this many half-moves
+    private final GameState game = new GameState();
+
+    // Sync state: the last irreversible position and the moves played since
+    private String syncFen;
+    private final List<String> syncMoves = new ArrayList<>();
+    private long[] hashes = new long[128]; // Hashes of the positions since syncFen
+    private int hashCount;
+
+    /**
+     * Creates a game between two players.
+     *
+     * @param white The player of the white pieces.
+     * @param black The player of the black pieces.
+     * @param maxPlies The number of half-moves after which the game is drawn.
+     * @throws IllegalArgumentException If maxPlies is not positive.
+     */
+    public HeadlessGame(GamePlayer white, GamePlayer black, int maxPlies) {
+        if (maxPlies <= 0) {
+            throw new IllegalArgumentException("Ply limit must be positive: " + maxPlies);
+        }
+        this.white = white;
+        this.black = black;
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Plays a game from the standard starting position.
+     *
+     * @return The result of the game.
+     * @throws IOException If a player's engine fails.
+     * @throws InterruptedException If the thread is interrupted.
+     */
+    public GameResult play() throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        return playFrom(game.reset(), start);
+    }
+
+    /**
+     * Plays a game from a given position, e.g. an opening from a suite.
+     *
+     * @param fen The starting position in FEN.
+     * @return The result of the game.
+     * @throws IOException If a player's engine fails.
+     * @throws InterruptedException If the thread is interrupted.
+     * @throws IllegalArgumentException If the FEN is malformed.
+     */
+    public GameResult play(String fen) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        return playFrom(game.reset(fen), start);
+    }
+
+    /**
+     * Plays the game until it is decided or reaches the ply limit.
+     */
+    private GameResult playFrom(PositionSnapshot position, long start) throws IOException, InterruptedException {
+        startSyncFrom(position);
+        white.newGame(game);
+        black.newGame(game);
+
+        int plies = 0;
+        while (true) {
+            String reason = adjudicate(position);
+            if (reason != null) {
+                return finish(resultOf(position, reason), reason, plies, position, start);
+            }
+            if (plies >= maxPlies) {
+                return finish(GameResult.Outcome.DRAW, "ply limit", plies, position, start);
+            }
+
+            boolean whiteToMove = position.currentPlayer() == ChessBoard.Player.WHITE;
+            GamePlayer mover = whiteToMove ? white : black;
+            GameResult.Outcome forfeit = whiteToMove ? GameResult.Outcome.BLACK_WINS : GameResult.Outcome.WHITE_WINS;
+
+            String move = mover.chooseMove(game, syncFen, syncMoves);
+            if (move == null) {
+                return finish(forfeit, mover.getName() + " returned no move", plies, position, start);
+            }
+            try {
+                position = game.makeMove(move);
+            } catch (IllegalArgumentException e) {
+                return finish(forfeit, mover.getName() + " played illegal move " + move, plies, position, start);
+            }
+            plies++;
+            recordMove(move, position);
+        }
+    }
+
+    /**
+     * Checks whether the game is over in the current position.
+     *
+     * @return The reason the game ended, or null if it goes on.
+     */
+    private String adjudicate(PositionSnapshot position) {
+        if (!game.hasLegalMoves()) {
+            return game.isInCheck() ? "checkmate" : "stalemate";
+        }
+        if (position.getHalfmoveClock() >= 100) {
+            return "fifty-move rule";
+        }
+        if (countRepetitions(position.hash()) >= 3) {
+            return "threefold repetition";
+        }
+        if (isInsufficientMaterial(position)) {
+            return "insufficient material";
+        }
+        return null;
+    }
+
+    /**
+     * @return The outcome of a game that ended for the given reason.
+     */
+    private static GameResult.Outcome resultOf(PositionSnapshot position, String reason) {
+        if (!reason.equals("checkmate")) {
+            return GameResult.Outcome.DRAW;
+        }
+        // The side to move is the side that has been mated
+        return position.currentPlayer() == ChessBoard.Player.WHITE
+                ? GameResult.Outcome.BLACK_WINS
+                : GameResult.Outcome.WHITE_WINS;
+    }
+
+    private GameResult finish(GameResult.Outcome outcome, String reason, int plies,
+            PositionSnapshot position, long start) {
+        return new GameResult(outcome, reason, plies, position.toFen(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Starts a new sync stretch at an irreversible position.
+     */
+    private void startSyncFrom(PositionSnapshot position) {
+        syncFen = position.toFen();
+        syncMoves.clear();
+        hashCount = 0;
+        addHash(position.hash());
+    }
+
+    /**
+     * Updates the sync state after a move. A capture or pawn move resets the
+     * halfmove clock; no earlier position can be repeated after it.
+     */
+    private void recordMove(String move, PositionSnapshot position) {
+        if (position.getHalfmoveClock() == 0) {
+            startSyncFrom(position);
+        } else {
+            syncMoves.add(move);
+            addHash(position.hash());
+        }
+    }
+
+    private void addHash(long hash) {
+        if (hashCount == hashes.length) {
+            hashes = Arrays.copyOf(hashes, hashCount * 2);
+        }
+        hashes[hashCount++] = hash;
+    }
+
+    /**
+     * @return How often a position has occurred since the last irreversible move.
+     */
+    private int countRepetitions(long hash) {
+        int count = 0;
+        for (int i = 0; i < hashCount; i++) {
+            if (hashes[i] == hash) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks for the material draws that no sequence of moves can win: king
+     * against king, and king and a single bishop or knight against a lone
+     * king.
+     */
+    private static boolean isInsufficientMaterial(PositionSnapshot position) {
+        int minorPieces = 0;
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                switch (Math.abs(position.getPieceAt(row, col))) {
+                    case 0, 6 -> {
+                        // Empty square or king
+                    }
+                    case 3, 4 -> {
+                        if (++minorPieces > 1) {
+                            return false;
+                        }
+                    }
+                    default -> {
+                        return false; // A pawn, rook or queen can still mate
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: MonteCarloPlayer
+ *
+ * A GamePlayer that searches with Monte Carlo Tree Search. A new
+ * MonteCarloMoves is created for every game, so no tree is carried from one
+ * game into the next, while the tree is still reused between the moves of a
+ * game.
+ */
+package com.chess.stockfish;
+
+import com.chess.montecarlo.MonteCarloMoves;
+import com.chess.montecarlo.MonteCarloTree;
+import com.chess.montecarlo.SearchLimits;
+import java.util.List;
+
+/**
+ * Plays the moves chosen by Monte Carlo Tree Search.
+ */
+public final class MonteCarloPlayer implements GamePlayer {
+
+    private final int workers; // Search threads per move
+    private final MonteCarloTree.Parallelism parallelism;
+    private final SearchLimits limits; // Budget of each move's search
+    private final String name;
+    private MonteCarloMoves search; // Search of the current game
+
+    /**
+     * Creates a Monte Carlo player.
+     *
+     * @param workers The number of search threads per move (at least 1).
+     * @param parallelism How the workers share the search.
+     * @param limits The budget of each move's search.
+     * @param name The name used in game reports.
+     */
+    public MonteCarloPlayer(int workers, MonteCarloTree.Parallelism parallelism, SearchLimits limits, String name) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Worker count must be at least 1: " + workers);
+        }
+        this.workers = workers;
+        this.parallelism = parallelism;
+        this.limits = limits;
+        this.name = name;
+    }
+
+    @Override
+    public void newGame(GameState game) {
+        search = new MonteCarloMoves(game, workers, parallelism, limits);
+    }
+
+    /**
+     * Searches the game's latest snapshot. Promotions are played as queen
+     * promotions, as elsewhere in the Monte Carlo search.
+     */
+    @Override
+    public String chooseMove(GameState game, String baseFen, List<String> movesSinceBase) {
+        if (search == null) {
+            throw new IllegalStateException("newGame was not called");
+        }
+        int[] move = search.getBestMonteCarloMove();
+        if (move == null || move[0] < 0) {
+            return null;
+        }
+        return Move.toUci(Move.encode(move[0] * 8 + move[1], move[2] * 8 + move[3], 0, 0));
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
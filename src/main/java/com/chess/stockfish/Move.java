@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: Move
+ *
+ * This class encodes chess moves as single ints so that move lists can be
+ * stored in primitive arrays without allocating an object per move.
+ *
+ * Layout of a packed move:
+ * - Bits 0-5: the square the piece moves from (row * 8 + col).
+ * - Bits 6-11: the square the piece moves to.
+ * - Bits 12-15: flags (capture, double pawn push, en passant, castling).
+ * - Bits 16-19: the piece type a pawn promotes to, or 0 for no promotion.
+ *
+ * A packed move never has equal from and to squares, so 0 (`NONE`) is never
+ * a valid move and can be used as a "no move" marker.
+ */
+package com.chess.stockfish;
+
+public final class Move {
+
+    // Marker for "no move"
+    public static final int NONE = 0;
+
+    // Move flags
+    public static final int CAPTURE = 1;
+    public static final int DOUBLE_PAWN_PUSH = 2;
+    public static final int EN_PASSANT = 4;
+    public static final int CASTLING = 8;
+
+    private Move() {} // Prevent instantiation
+
+    /**
+     * Packs a move into a single int.
+     *
+     * @param from The square the piece moves from (0-63).
+     * @param to The square the piece moves to (0-63).
+     * @param flags A combination of the move flags.
+     * @param promotion The piece type a pawn promotes to (2-5), or 0.
+     * @return The packed move.
+     */
+    public static int encode(int from, int to, int flags, int promotion) {
+        return from | (to << 6) | (flags << 12) | (promotion << 16);
+    }
+
+    /**
+     * Returns the square the piece moves from.
+     *
+     * @param move The packed move.
+     * @return The from square (0-63).
+     */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    /**
+     * Returns the square the piece moves to.
+     *
+     * @param move The packed move.
+     * @return The to square (0-63).
+     */
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * Returns the flags of a move.
+     *
+     * @param move The packed move.
+     * @return A combination of the move flags.
+     */
+    public static int flags(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    /**
+     * Returns the piece type a pawn promotes to.
+     *
+     * @param move The packed move.
+     * @return The promotion piece type (2-5), or 0 if the move is not a
+     * promotion.
+     */
+    public static int promotion(int move) {
+        return (move >>> 16) & 15;
+    }
+
+    /**
+     * Checks whether a move captures a piece, including en passant.
+     *
+     * @param move The packed move.
+     * @return True if the move is a capture.
+     */
+    public static boolean isCapture(int move) {
+        return (flags(move) & (CAPTURE | EN_PASSANT)) != 0;
+    }
+
+    /**
+     * Converts a packed move to the [fromRow, fromCol, toRow, toCol] form used
+     * by the rest of the application.
+     *
+     * @param move The packed move.
+     * @return A new array describing the move.
+     */
+    public static int[] toArray(int move) {
+        int from = from(move);
+        int to = to(move);
+        return new int[]{from >>> 3, from & 7, to >>> 3, to & 7};
+    }
+
+    /**
+     * Converts a packed move to UCI notation (e.g., "e2e4" or "e7e8q").
+     *
+     * @param move The packed move.
+     * @return The move in UCI notation.
+     */
+    public static String toUci(int move) {
+        int from = from(move);
+        int to = to(move);
+        StringBuilder sb = new StringBuilder(5);
+        sb.append((char) ('a' + (from & 7))).append(8 - (from >>> 3));
+        sb.append((char) ('a' + (to & 7))).append(8 - (to >>> 3));
+        switch (promotion(move)) {
+            case 2 ->
+                sb.append('r');  // Rook
+            case 3 ->
+                sb.append('n');  // Knight
+            case 4 ->
+                sb.append('b');  // Bishop
+            case 5 ->
+                sb.append('q');  // Queen
+            default -> {
+            }
+        }
+        return sb.toString();
+    }
+}
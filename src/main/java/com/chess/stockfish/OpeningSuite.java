@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: OpeningSuite
+ *
+ * Starting positions for tournament games. Playing every game from the
+ * initial position makes deterministic engines repeat the same game; a suite
+ * of balanced openings, each played once with either color, gives varied
+ * games and cancels the advantage of any one opening.
+ *
+ * The built-in suite holds common main lines. A suite can also be read from
+ * a file with one FEN per line; blank lines and lines starting with '#' are
+ * skipped.
+ */
+package com.chess.stockfish;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opening positions for engine matches.
+ */
+public final class OpeningSuite {
+
+    // Main lines in UCI notation, played from the initial position
+    private static final String[] STANDARD_LINES = {
+        "e2e4 e7e5 g1f3 b8c6 f1b5",          // Ruy Lopez
+        "e2e4 e7e5 g1f3 b8c6 f1c4 f8c5",     // Italian Game
+        "e2e4 c7c5 g1f3 d7d6 d2d4 c5d4",     // Sicilian Defense
+        "e2e4 e7e6 d2d4 d7d5",               // French Defense
+        "e2e4 c7c6 d2d4 d7d5",               // Caro-Kann Defense
+        "e2e4 d7d5 e4d5 d8d5",               // Scandinavian Defense
+        "d2d4 d7d5 c2c4 e7e6 b1c3 g8f6",     // Queen's Gambit Declined
+        "d2d4 d7d5 c2c4 c7c6",               // Slav Defense
+        "d2d4 g8f6 c2c4 g7g6 b1c3 f8g7",     // King's Indian Defense
+        "d2d4 g8f6 c2c4 e7e6 g1f3 b7b6",     // Queen's Indian Defense
+        "c2c4 e7e5 b1c3 g8f6",               // English Opening
+        "g1f3 d7d5 g2g3 g8f6 f1g2",          // Reti Opening
+    };
+
+    private static final List<String> STANDARD = buildStandard();
+
+    private OpeningSuite() {} // Prevent instantiation
+
+    /**
+     * @return The built-in suite as FENs.
+     */
+    public static List<String> standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Reads a suite with one FEN per line. Every position is checked when it
+     * is read, so a bad line fails the run before any game starts.
+     *
+     * @param file The suite file.
+     * @return The FENs in file order.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If a line is not a valid FEN or the
+     * file holds no positions.
+     */
+    public static List<String> load(Path file) throws IOException {
+        List<String> fens = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file)) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                ChessBoard.fromFen(line);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+            fens.add(line);
+        }
+        if (fens.isEmpty()) {
+            throw new IllegalArgumentException("No positions in " + file);
+        }
+        return List.copyOf(fens);
+    }
+
+    /**
+     * Plays the built-in lines to get their FENs.
+     */
+    private static List<String> buildStandard() {
+        List<String> fens = new ArrayList<>(STANDARD_LINES.length);
+        GameState game = new GameState();
+        for (String line : STANDARD_LINES) {
+            PositionSnapshot position = game.reset();
+            for (String move : line.split(" ")) {
+                position = game.makeMove(move);
+            }
+            fens.add(position.toFen());
+        }
+        return List.copyOf(fens);
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: Perft
+ *
+ * This class counts the leaf nodes of the legal move tree ("perft") to verify
+ * and measure `ChessBoard` move generation. Node counts for well-known test
+ * positions are published, so any difference points to a move generation bug,
+ * and the time taken gives the generator's speed in nodes per second.
+ *
+ * Key functionalities include:
+ * - `perft(board, depth)`: counts the leaf nodes at a given depth.
+ * - `divide(board, depth)`: breaks the count down per root move, to find which
+ *   move a bug is under by comparing against another engine.
+ * - `parallelPerft(...)`: splits the root moves across a ForkJoinPool, with an
+ *   optional shared `PerftCache`.
+ * - `runSuite(...)`: runs the standard test positions, which cover castling,
+ *   en passant, promotions, pins and checks, and reports nodes per second.
+ *
+ * Usage:
+ * - java com.chess.stockfish.Perft [--depth N] [--parallel] [--threads N] [--cache MB]
+ */
+package com.chess.stockfish;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public final class Perft {
+
+    // Standard test positions with known node counts for depth 1, 2, ...; also read by PerftTest
+    static final Object[][] SUITE = {
+        {"Start position", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            new long[]{20, 400, 8902, 197281, 4865609, 119060324}},
+        {"Kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            new long[]{48, 2039, 97862, 4085603, 193690690}},
+        {"Rook endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            new long[]{14, 191, 2812, 43238, 674624, 11030083}},
+        {"Promotions", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            new long[]{6, 264, 9467, 422333, 15833292}},
+        {"Promotions (mirrored)", "r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1",
+            new long[]{6, 264, 9467, 422333, 15833292}},
+        {"Discovered checks", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            new long[]{44, 1486, 62379, 2103487, 89941194}},
+        {"Middlegame", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            new long[]{46, 2079, 89890, 3894594, 164075551}},
+        {"Illegal en passant", "3k4/3p4/8/K1P4r/8/8/8/8 b - - 0 1",
+            new long[]{18, 92, 1670, 10138, 185429, 1134888}},
+        {"En passant capture", "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1",
+            new long[]{15, 126, 1928, 13931, 206379, 1440467}},
+        {"Short castling", "5k2/8/8/8/8/8/8/4K2R w K - 0 1",
+            new long[]{15, 66, 1198, 6399, 120330, 661072}},
+        {"Long castling", "3k4/8/8/8/8/8/8/R3K3 w Q - 0 1",
+            new long[]{16, 71, 1286, 7418, 141077, 803711}},
+        {"Castling through attacks", "r3k2r/1b4bq/8/8/8/8/7B/R3K2R w KQkq - 0 1",
+            new long[]{26, 1141, 27826, 1274206}},
+        {"Promotion out of check", "2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1",
+            new long[]{11, 133, 1442, 19174, 266199, 3821001}},
+        {"Underpromotion", "8/P1k5/K7/8/8/8/8/8 w - - 0 1",
+            new long[]{6, 27, 273, 1329, 18135, 92683}}
+    };
+
+    // Deepest search the move list stack is prepared for
+    private static final int MAX_DEPTH = 64;
+
+    private Perft() {} // Prevent instantiation
+
+    /**
+     * Counts the leaf nodes of the legal move tree to the given depth.
+     *
+     * @param board The position to start from; it is restored on return.
+     * @param depth The number of plies to search.
+     * @return The number of leaf nodes.
+     */
+    public static long perft(ChessBoard board, int depth) {
+        return perft(board, depth, null);
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree to the given depth, using
+     * a cache for positions that are reached more than once.
+     *
+     * @param board The position to start from; it is restored on return.
+     * @param depth The number of plies to search.
+     * @param cache The cache to use, or null for none.
+     * @return The number of leaf nodes.
+     */
+    public static long perft(ChessBoard board, int depth, PerftCache cache) {
+        if (depth <= 0) {
+            return 1;
+        }
+        return count(board, depth, newMoveLists(depth), cache);
+    }
+
+    /**
+     * Counts the leaf nodes below each root move, in UCI notation.
+     *
+     * @param board The position to start from; it is restored on return.
+     * @param depth The number of plies to search (at least 1).
+     * @return The node count per root move, in generation order.
+     */
+    public static Map<String, Long> divide(ChessBoard board, int depth) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        MoveList[] lists = newMoveLists(depth);
+        MoveList rootMoves = new MoveList();
+        board.getAllLegalMoves(board.currentPlayer(), rootMoves);
+
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            board.makeMove(move);
+            result.put(Move.toUci(move), depth <= 1 ? 1 : count(board, depth - 1, lists, null));
+            board.unmakeMove();
+        }
+        return result;
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree with one task per root
+     * move on a ForkJoinPool. Each task searches its own copy of the board.
+     *
+     * @param board The position to start from; it is not modified.
+     * @param depth The number of plies to search.
+     * @param threads The number of worker threads.
+     * @param cache A cache shared by all tasks, or null for none.
+     * @return The number of leaf nodes.
+     */
+    public static long parallelPerft(ChessBoard board, int depth, int threads, PerftCache cache) {
+        if (depth <= 1) {
+            return perft(board, depth);
+        }
+
+        MoveList rootMoves = new MoveList();
+        board.getAllLegalMoves(board.currentPlayer(), rootMoves);
+        List<RootMoveTask> tasks = new ArrayList<>(rootMoves.size());
+        for (int i = 0; i < rootMoves.size(); i++) {
+            tasks.add(new RootMoveTask(board.copy(), rootMoves.get(i), depth - 1, cache));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new RecursiveTask<Long>() {
+                @Override
+                protected Long compute() {
+                    long nodes = 0;
+                    for (RootMoveTask task : invokeAll(tasks)) {
+                        nodes += task.join();
+                    }
+                    return nodes;
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs every position of the standard suite and prints the node counts,
+     * timings and nodes per second.
+     *
+     * @param maxDepth The deepest level to run for each position.
+     * @param parallel True to use parallelPerft, false for a single thread.
+     * @param threads The number of worker threads in parallel mode.
+     * @param cacheMegabytes The size of the perft cache, or 0 for none.
+     * @return True if every node count matched the expected value.
+     */
+    public static boolean runSuite(int maxDepth, boolean parallel, int threads, int cacheMegabytes) {
+        boolean allPassed = true;
+        long totalNodes = 0;
+        long totalNanos = 0;
+
+        for (Object[] position : SUITE) {
+            String name = (String) position[0];
+            long[] expected = (long[]) position[2];
+            int depth = Math.min(maxDepth, expected.length);
+            ChessBoard board = ChessBoard.fromFen((String) position[1]);
+            PerftCache cache = cacheMegabytes > 0 ? new PerftCache(cacheMegabytes) : null;
+
+            long start = System.nanoTime();
+            long nodes = parallel ? parallelPerft(board, depth, threads, cache) : perft(board, depth, cache);
+            long nanos = System.nanoTime() - start;
+
+            boolean passed = nodes == expected[depth - 1];
+            allPassed &= passed;
+            totalNodes += nodes;
+            totalNanos += nanos;
+            System.out.printf("%-28s depth %d %12d nodes %8d ms %10.0f nps  %s%n",
+                    name, depth, nodes, nanos / 1_000_000, nodesPerSecond(nodes, nanos),
+                    passed ? "OK" : "FAILED (expected " + expected[depth - 1] + ")");
+        }
+
+        System.out.printf("Total %d nodes in %d ms, %.0f nps%n",
+                totalNodes, totalNanos / 1_000_000, nodesPerSecond(totalNodes, totalNanos));
+        return allPassed;
+    }
+
+    /**
+     * Runs the standard suite from the command line. The process exits with
+     * status 1 if any node count is wrong.
+     *
+     * @param args Optional flags: --depth N, --parallel, --threads N,
+     * --cache MB.
+     */
+    public static void main(String[] args) {
+        int depth = 5;
+        boolean parallel = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int cache = 0;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--depth" ->
+                    depth = Integer.parseInt(args[++i]);
+                case "--parallel" ->
+                    parallel = true;
+                case "--threads" ->
+                    threads = Integer.parseInt(args[++i]);
+                case "--cache" ->
+                    cache = Integer.parseInt(args[++i]);
+                default ->
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        if (!runSuite(depth, parallel, threads, cache)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Recursively counts leaf nodes, counting the moves at depth 1 instead of
+     * playing them.
+     */
+    private static long count(ChessBoard board, int depth, MoveList[] lists, PerftCache cache) {
+        if (cache != null && depth > 1) {
+            long cached = cache.get(board.hash(), depth);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+
+        MoveList moves = lists[depth];
+        board.getAllLegalMoves(board.currentPlayer(), moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += count(board, depth - 1, lists, cache);
+            board.unmakeMove();
+        }
+
+        if (cache != null) {
+            cache.put(board.hash(), depth, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Creates one reusable move list per remaining depth.
+     */
+    private static MoveList[] newMoveLists(int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Perft depth must be at most " + MAX_DEPTH);
+        }
+        MoveList[] lists = new MoveList[depth + 1];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+        return lists;
+    }
+
+    private static double nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000.0 / nanos;
+    }
+
+    /**
+     * Counts the nodes below one root move on a private copy of the board.
+     */
+    private static final class RootMoveTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        // Tasks are never serialized; the board and cache only live for one perft run
+        private final transient ChessBoard board;
+        private final int move;
+        private final int depth;
+        private final transient PerftCache cache;
+
+        RootMoveTask(ChessBoard board, int move, int depth, PerftCache cache) {
+            this.board = board;
+            this.move = move;
+            this.depth = depth;
+            this.cache = cache;
+        }
+
+        @Override
+        protected Long compute() {
+            board.makeMove(move);
+            return count(board, depth, newMoveLists(depth), cache);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: PerftCache
+ *
+ * This class is a fixed-size table of perft results keyed by Zobrist key and
+ * depth. It lets `Perft` skip subtrees it has already counted, which happens
+ * often because different move orders reach the same position.
+ *
+ * The table is shared by all perft threads without locks. Each slot stores the
+ * node count and the lookup key XOR-ed with that count; a read only succeeds if
+ * the two still match, so a slot torn by concurrent writers reads as a miss
+ * instead of a wrong count.
+ */
+package com.chess.stockfish;
+
+public final class PerftCache {
+
+    private final long[] keys;
+    private final long[] counts;
+    private final int mask;
+
+    /**
+     * Creates a cache using about the given amount of memory.
+     *
+     * @param megabytes The memory budget in megabytes (at least 1).
+     */
+    public PerftCache(int megabytes) {
+        long slots = Math.max(1, megabytes) * (1L << 20) / 16;  // 16 bytes per slot
+        int size = Integer.highestOneBit((int) Math.min(slots, 1 << 30));
+        this.keys = new long[size];
+        this.counts = new long[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Looks up the node count of a position at a given depth.
+     *
+     * @param hash The Zobrist key of the position.
+     * @param depth The remaining perft depth.
+     * @return The stored node count, or -1 if it is not in the cache.
+     */
+    public long get(long hash, int depth) {
+        long key = key(hash, depth);
+        int slot = (int) key & mask;
+        long count = counts[slot];
+        return (keys[slot] ^ count) == key ? count : -1;
+    }
+
+    /**
+     * Stores the node count of a position at a given depth, replacing
+     * whatever was in its slot.
+     *
+     * @param hash The Zobrist key of the position.
+     * @param depth The remaining perft depth.
+     * @param count The node count.
+     */
+    public void put(long hash, int depth, long count) {
+        long key = key(hash, depth);
+        int slot = (int) key & mask;
+        counts[slot] = count;
+        keys[slot] = key ^ count;
+    }
+
+    /**
+     * Mixes the depth into the position key so the same position at
+     * different depths uses different entries.
+     */
+    private static long key(long hash, int depth) {
+        return hash ^ (depth * 0x9E3779B97F4A7C15L);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: PieceSquareTables
+ *
+ * This class holds the material values and piece-square tables used to score
+ * positions. Each piece on a square is worth its material value plus a
+ * positional bonus, counted positive for White and negative for Black, so the
+ * score of a position is just the sum over its pieces.
+ *
+ * Because the score is a plain sum, `ChessBoard` keeps it up to date as pieces
+ * are placed and removed, and the evaluation of a position is a field read.
+ */
+package com.chess.stockfish;
+
+public final class PieceSquareTables {
+
+    public static final int PAWN_VALUE = 100;
+    public static final int KNIGHT_VALUE = 320;
+    public static final int BISHOP_VALUE = 330;
+    public static final int ROOK_VALUE = 500;
+    public static final int QUEEN_VALUE = 900;
+    public static final int KING_VALUE = 20000;
+
+    // Piece-Square Tables (simplified, mimicking Stockfish evaluation), from
+    // White's point of view with row 0 being Black's back rank
+    private static final int[][] PAWN_TABLE = {
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {50, 50, 50, 50, 50, 50, 50, 50},
+        {10, 10, 20, 30, 30, 20, 10, 10},
+        {5, 5, 10, 25, 25, 10, 5, 5},
+        {0, 0, 0, 20, 20, 0, 0, 0},
+        {5, -5, -10, 0, 0, -10, -5, 5},
+        {5, 10, 10, -20, -20, 10, 10, 5},
+        {0, 0, 0, 0, 0, 0, 0, 0}
+    };
+
+    // Signed score of every piece code on every square, indexed by (piece + 6) * 64 + square
+    private static final int[] SCORES = new int[13 * 64];
+
+    static {
+        for (int piece = -6; piece <= 6; piece++) {
+            for (int sq = 0; sq < 64; sq++) {
+                SCORES[(piece + 6) * 64 + sq] = computeScore(piece, sq >>> 3, sq & 7);
+            }
+        }
+    }
+
+    private PieceSquareTables() {} // Prevent instantiation
+
+    /**
+     * Returns the score of a piece standing on a square.
+     *
+     * @param piece The piece code (+ for White, - for Black, 0 for empty).
+     * @param square The square index (row * 8 + col).
+     * @return The signed score: positive for White pieces, negative for Black.
+     */
+    public static int score(int piece, int square) {
+        return SCORES[(piece + 6) * 64 + square];
+    }
+
+    /**
+     * Computes the score of a piece on a square from the material values and
+     * tables.
+     *
+     * @param piece The piece code (+ for White, - for Black, 0 for empty).
+     * @param row The row index.
+     * @param col The column index.
+     * @return The signed score of that piece.
+     */
+    private static int computeScore(int piece, int row, int col) {
+        if (piece == 0) return 0;
+
+        boolean isWhite = piece > 0;
+        int value = switch (Math.abs(piece)) {
+            case 1 -> PAWN_VALUE + PAWN_TABLE[isWhite ? row : 7 - row][col];
+            case 2 -> ROOK_VALUE;
+            case 3 -> KNIGHT_VALUE;
+            case 4 -> BISHOP_VALUE;
+            case 5 -> QUEEN_VALUE;
+            default -> KING_VALUE;
+        };
+
+        return isWhite ? value : -value;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: PositionSnapshot
+ *
+ * An immutable copy of a position as it stood after a given move of the game.
+ * GameState publishes a new snapshot after every move, and readers on any
+ * thread (the window, the Monte Carlo search, logging) read it without locks:
+ * nothing in a snapshot can change after it is created.
+ *
+ * The pieces are held in 64 bytes, one per square (a8 first, h1 last), so a
+ * snapshot is cheap to create and to keep. Searchers that need to make moves
+ * turn it back into a ChessBoard with toBoard().
+ */
+package com.chess.stockfish;
+
+/**
+ * An immutable position: pieces, side to move, castling rights, en passant
+ * square, move counters and position key.
+ */
+public final class PositionSnapshot {
+
+    // The standard starting position
+    public static final PositionSnapshot START = new ChessBoard().snapshot();
+
+    private final byte[] squares; // Piece code per square, never exposed
+    private final ChessBoard.Player sideToMove;
+    private final int castlingRights; // ChessBoard castling flags
+    private final int enPassantSquare; // Square index, or -1
+    private final int halfmoveClock;
+    private final int fullmoveNumber;
+    private final long hash;
+    private final long version;
+
+    /**
+     * Creates a snapshot. Only ChessBoard creates snapshots, and it hands
+     * over an array it does not keep.
+     */
+    PositionSnapshot(byte[] squares, ChessBoard.Player sideToMove, int castlingRights, int enPassantSquare,
+            int halfmoveClock, int fullmoveNumber, long hash, long version) {
+        this.squares = squares;
+        this.sideToMove = sideToMove;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        this.hash = hash;
+        this.version = version;
+    }
+
+    /**
+     * Returns the piece on a square.
+     *
+     * @param row The row index (0-7).
+     * @param col The column index (0-7).
+     * @return The piece code, or 0 if the square is empty.
+     * @throws IllegalArgumentException If the position is off the board.
+     */
+    public int getPieceAt(int row, int col) {
+        if (row < 0 || row >= 8 || col < 0 || col >= 8) {
+            throw new IllegalArgumentException("Position out of bounds");
+        }
+        return squares[row * 8 + col];
+    }
+
+    /**
+     * @return The player to move.
+     */
+    public ChessBoard.Player currentPlayer() {
+        return sideToMove;
+    }
+
+    /**
+     * @return The Zobrist key of the position, equal to ChessBoard.hash().
+     */
+    public long hash() {
+        return hash;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Returns the version of the game state this snapshot was published as.
+     * Versions increase with every change, so a reader can tell whether the
+     * position changed since its last look by comparing versions.
+     *
+     * @return The version, or 0 for snapshots not published by a GameState.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Describes the position in Forsyth-Edwards Notation, e.g. to send it to
+     * an engine with "position fen". ChessBoard.fromFen() reads it back.
+     *
+     * @return The position in FEN.
+     */
+    public String toFen() {
+        return ChessBoard.formatFen(sq -> squares[sq], sideToMove, castlingRights, enPassantSquare,
+                halfmoveClock, fullmoveNumber);
+    }
+
+    /**
+     * Creates a new board holding this position, for searching or analysis.
+     * The board has no move history.
+     *
+     * @return A new, independent board.
+     */
+    public ChessBoard toBoard() {
+        return ChessBoard.fromSnapshot(this);
+    }
+
+    /**
+     * @param square The square index (a8 = 0, h1 = 63).
+     * @return The piece code on the square.
+     */
+    int pieceAt(int square) {
+        return squares[square];
+    }
+
+    int castlingRights() {
+        return castlingRights;
+    }
+
+    int enPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * Draws the position as eight lines of piece letters (uppercase for
+     * White, '.' for an empty square), followed by the side to move.
+     *
+     * @return The position as text.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(90);
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                int piece = squares[row * 8 + col];
+                char letter = piece == 0 ? '.' : "?PRNBQK".charAt(Math.abs(piece));
+                sb.append(piece < 0 ? Character.toLowerCase(letter) : letter);
+            }
+            sb.append('\n');
+        }
+        return sb.append(sideToMove == ChessBoard.Player.WHITE ? "White" : "Black").append(" to move").toString();
+    }
+}
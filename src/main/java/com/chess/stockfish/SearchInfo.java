@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: SearchInfo
+ *
+ * The contents of one UCI "info" line: depth, selective depth, score (in
+ * centipawns or moves to mate, with lowerbound/upperbound flags), nodes,
+ * nodes per second, time, hash usage, tablebase hits, multipv index and the
+ * principal variation as packed moves (see Move).
+ *
+ * The object is meant to be reused: UciInfoParser fills it in place for every
+ * line, so reading engine output allocates nothing per line. A listener that
+ * wants to keep an update after its callback returns must copy it with
+ * copyFrom().
+ */
+package com.chess.stockfish;
+
+/**
+ * A reusable, mutable record of one engine "info" line.
+ */
+public final class SearchInfo {
+
+    // Value of the numeric fields the line did not report
+    public static final int MISSING = -1;
+
+    // Score bounds
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1;
+    public static final int UPPER_BOUND = 2;
+
+    // Longest principal variation kept; further moves are ignored
+    public static final int MAX_PV = 128;
+
+    // Score kinds
+    static final int NO_SCORE = 0;
+    static final int CENTIPAWNS = 1;
+    static final int MATE = 2;
+
+    int depth;
+    int selDepth;
+    int multiPv;
+    int scoreKind;
+    int score; // Centipawns, or moves to mate (negative when being mated)
+    int bound;
+    long nodes;
+    long nps;
+    long timeMs;
+    int hashFull; // Per mille
+    long tbHits;
+    final int[] pv = new int[MAX_PV];
+    int pvLength;
+
+    /**
+     * Creates an empty record.
+     */
+    public SearchInfo() {
+        clear();
+    }
+
+    /**
+     * Marks every field as not reported.
+     */
+    void clear() {
+        depth = MISSING;
+        selDepth = MISSING;
+        multiPv = 1;
+        scoreKind = NO_SCORE;
+        score = 0;
+        bound = EXACT;
+        nodes = MISSING;
+        nps = MISSING;
+        timeMs = MISSING;
+        hashFull = MISSING;
+        tbHits = MISSING;
+        pvLength = 0;
+    }
+
+    /**
+     * Copies another record into this one.
+     *
+     * @param other The record to copy.
+     */
+    public void copyFrom(SearchInfo other) {
+        depth = other.depth;
+        selDepth = other.selDepth;
+        multiPv = other.multiPv;
+        scoreKind = other.scoreKind;
+        score = other.score;
+        bound = other.bound;
+        nodes = other.nodes;
+        nps = other.nps;
+        timeMs = other.timeMs;
+        hashFull = other.hashFull;
+        tbHits = other.tbHits;
+        pvLength = other.pvLength;
+        System.arraycopy(other.pv, 0, pv, 0, other.pvLength);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getSelDepth() {
+        return selDepth;
+    }
+
+    /**
+     * @return The index of the line among the engine's best lines (1 for the
+     * best), 1 if the engine did not report one.
+     */
+    public int getMultiPv() {
+        return multiPv;
+    }
+
+    /**
+     * @return True if the line carried a score.
+     */
+    public boolean hasScore() {
+        return scoreKind != NO_SCORE;
+    }
+
+    /**
+     * @return True if the score is a mate score.
+     */
+    public boolean isMate() {
+        return scoreKind == MATE;
+    }
+
+    /**
+     * @return The score in centipawns from the engine's point of view; only
+     * meaningful if hasScore() is true and isMate() is false.
+     */
+    public int getScoreCp() {
+        return scoreKind == CENTIPAWNS ? score : 0;
+    }
+
+    /**
+     * @return The moves to mate, negative if the engine is being mated; only
+     * meaningful if isMate() is true.
+     */
+    public int getMateIn() {
+        return scoreKind == MATE ? score : 0;
+    }
+
+    /**
+     * @return EXACT, LOWER_BOUND or UPPER_BOUND.
+     */
+    public int getBound() {
+        return bound;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getNps() {
+        return nps;
+    }
+
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    /**
+     * @return How full the hash table is, in per mille.
+     */
+    public int getHashFull() {
+        return hashFull;
+    }
+
+    public long getTbHits() {
+        return tbHits;
+    }
+
+    /**
+     * @return The number of moves in the principal variation.
+     */
+    public int getPvLength() {
+        return pvLength;
+    }
+
+    /**
+     * Returns a move of the principal variation. The move has its squares and
+     * promotion piece set, but no flags, since those depend on the position.
+     *
+     * @param index The ply of the variation, from 0.
+     * @return The packed move.
+     * @throws IndexOutOfBoundsException If index is not below getPvLength().
+     */
+    public int getPvMove(int index) {
+        if (index < 0 || index >= pvLength) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for PV of " + pvLength);
+        }
+        return pv[index];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SearchInfo[depth=").append(depth)
+                .append(", seldepth=").append(selDepth)
+                .append(", multipv=").append(multiPv);
+        if (hasScore()) {
+            sb.append(isMate() ? ", mate=" : ", cp=").append(score);
+            if (bound != EXACT) {
+                sb.append(bound == LOWER_BOUND ? " lowerbound" : " upperbound");
+            }
+        }
+        sb.append(", nodes=").append(nodes).append(", nps=").append(nps)
+                .append(", hashfull=").append(hashFull).append(", tbhits=").append(tbHits)
+                .append(", pv=");
+        for (int i = 0; i < pvLength; i++) {
+            sb.append(i == 0 ? "" : " ").append(Move.toUci(pv[i]));
+        }
+        return sb.append(']').toString();
+    }
+}
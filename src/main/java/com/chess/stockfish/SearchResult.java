@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: SearchResult
+ *
+ * The outcome of one engine search started with StockfishConnector.search():
+ * the move the engine chose, the reply it expects, its last evaluation, the
+ * last report on its best line and how long the search took.
+ */
+package com.chess.stockfish;
+
+/**
+ * The result of a completed engine search.
+ */
+public final class SearchResult {
+
+    private final String bestMove;
+    private final String ponder;
+    private final double rating;
+    private final SearchInfo info;
+    private final long elapsedMs;
+
+    /**
+     * @param bestMove The move chosen, in UCI notation.
+     * @param ponder The expected reply, or null.
+     * @param rating The last centipawn score reported, in pawns.
+     * @param info The last scored update of the best line; the result takes ownership of it.
+     * @param elapsedMs The time from sending "go" to receiving "bestmove".
+     */
+    SearchResult(String bestMove, String ponder, double rating, SearchInfo info, long elapsedMs) {
+        this.bestMove = bestMove;
+        this.ponder = ponder;
+        this.rating = rating;
+        this.info = info;
+        this.elapsedMs = elapsedMs;
+    }
+
+    /**
+     * @return The move chosen in UCI notation (e.g., "e2e4"), or "(none)"
+     * when the side to move has no legal moves.
+     */
+    public String getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return The reply the engine expects, or null if it reported none.
+     */
+    public String getPonder() {
+        return ponder;
+    }
+
+    /**
+     * @return The last centipawn score of the search in pawns, from the
+     * engine's point of view.
+     */
+    public double getRating() {
+        return rating;
+    }
+
+    /**
+     * @return The depth, score, node counts and principal variation last
+     * reported for the best line. Fields the engine never reported are
+     * SearchInfo.MISSING.
+     */
+    public SearchInfo getInfo() {
+        return info;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult[bestMove=" + bestMove + ", ponder=" + ponder
+                + ", rating=" + rating + ", depth=" + info.getDepth() + ", elapsed=" + elapsedMs + "ms]";
+    }
+}
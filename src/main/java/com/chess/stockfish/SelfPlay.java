@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: SelfPlay
+ *
+ * Command-line runner that plays a series of headless games, Stockfish
+ * against Monte Carlo Tree Search by default, and reports the results and
+ * the throughput in games per second. Nothing is drawn and nothing waits
+ * between moves, so the runner measures how fast the engines themselves
+ * play.
+ *
+ * Options:
+ * - `--games N`: number of games (default 10).
+ * - `--white P`, `--black P`: the players, `stockfish` or `mcts`.
+ * - `--movetime MS`: Stockfish time per move (default 100).
+ * - `--mcts-time MS`, `--mcts-playouts N`: Monte Carlo budget per move.
+ * - `--workers N`, `--tree`: Monte Carlo threads and tree parallelism.
+ * - `--threads N`, `--hash MB`, `--skill L`: Stockfish options.
+ * - `--max-plies N`: plies after which a game is drawn (default 400).
+ * - `--engine PATH`: the Stockfish executable.
+ * - `--quiet`: print only the summary.
+ */
+package com.chess.stockfish;
+
+import com.chess.montecarlo.MonteCarloTree;
+import com.chess.montecarlo.SearchLimits;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Plays headless games from the command line and reports games per second.
+ */
+public final class SelfPlay {
+
+    private SelfPlay() {} // Prevent instantiation
+
+    /**
+     * Runs the games described by the command-line options.
+     *
+     * @param args The options listed in the class description.
+     * @throws IOException If an engine fails to start or fails during a game.
+     * @throws InterruptedException If the thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = 10;
+        String whiteType = "stockfish";
+        String blackType = "mcts";
+        long movetime = 100;
+        long mctsTime = 100;
+        long mctsPlayouts = SearchLimits.UNLIMITED;
+        int workers = Runtime.getRuntime().availableProcessors();
+        MonteCarloTree.Parallelism parallelism = MonteCarloTree.Parallelism.ROOT;
+        int maxPlies = 400;
+        String enginePath = StockfishConnector.ENGINE_SOURCE;
+        boolean quiet = false;
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("Threads", "1");
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games" ->
+                    games = Integer.parseInt(args[++i]);
+                case "--white" ->
+                    whiteType = args[++i];
+                case "--black" ->
+                    blackType = args[++i];
+                case "--movetime" ->
+                    movetime = Long.parseLong(args[++i]);
+                case "--mcts-time" ->
+                    mctsTime = Long.parseLong(args[++i]);
+                case "--mcts-playouts" ->
+                    mctsPlayouts = Long.parseLong(args[++i]);
+                case "--workers" ->
+                    workers = Integer.parseInt(args[++i]);
+                case "--tree" ->
+                    parallelism = MonteCarloTree.Parallelism.TREE;
+                case "--threads" ->
+                    options.put("Threads", args[++i]);
+                case "--hash" ->
+                    options.put("Hash", args[++i]);
+                case "--skill" ->
+                    options.put("Skill Level", args[++i]);
+                case "--max-plies" ->
+                    maxPlies = Integer.parseInt(args[++i]);
+                case "--engine" ->
+                    enginePath = args[++i];
+                case "--quiet" ->
+                    quiet = true;
+                default ->
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (games < 1) {
+            throw new IllegalArgumentException("Game count must be at least 1: " + games);
+        }
+
+        SearchLimits limits = new SearchLimits(mctsTime, mctsPlayouts, SearchLimits.UNLIMITED, SearchLimits.UNLIMITED);
+        int engines = (whiteType.equals("stockfish") ? 1 : 0) + (blackType.equals("stockfish") ? 1 : 0);
+        try (StockfishPool pool = engines > 0 ? new StockfishPool(engines, options, enginePath) : null) {
+            GamePlayer white = createPlayer(whiteType, "White", pool, movetime, workers, parallelism, limits);
+            GamePlayer black = createPlayer(blackType, "Black", pool, movetime, workers, parallelism, limits);
+            run(white, black, games, maxPlies, quiet);
+        }
+    }
+
+    /**
+     * Plays the games and prints one line per game, unless quiet, and a
+     * summary.
+     *
+     * @param white The player of the white pieces in every game.
+     * @param black The player of the black pieces in every game.
+     * @param games The number of games.
+     * @param maxPlies The plies after which a game is drawn.
+     * @param quiet True to print only the summary.
+     * @throws IOException If an engine fails.
+     * @throws InterruptedException If the thread is interrupted.
+     * @throws IllegalArgumentException If games is less than 1.
+     */
+    public static void run(GamePlayer white, GamePlayer black, int games, int maxPlies, boolean quiet)
+            throws IOException, InterruptedException {
+        if (games < 1) {
+            throw new IllegalArgumentException("Game count must be at least 1: " + games);
+        }
+        HeadlessGame game = new HeadlessGame(white, black, maxPlies);
+        int whiteWins = 0;
+        int draws = 0;
+        int blackWins = 0;
+        long totalPlies = 0;
+
+        long start = System.nanoTime();
+        for (int i = 1; i <= games; i++) {
+            GameResult result = game.play();
+            switch (result.getOutcome()) {
+                case WHITE_WINS ->
+                    whiteWins++;
+                case BLACK_WINS ->
+                    blackWins++;
+                case DRAW ->
+                    draws++;
+            }
+            totalPlies += result.getPlies();
+            if (!quiet) {
+                System.out.printf("Game %d: %s%n", i, result);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%s vs %s: +%d =%d -%d in %.1f s, %.2f games/s, %.1f plies/game, %.0f plies/s%n",
+                white.getName(), black.getName(), whiteWins, draws, blackWins, seconds,
+                games / seconds, (double) totalPlies / games, totalPlies / seconds);
+    }
+
+    /**
+     * Creates a player from its command-line name. A Stockfish player keeps
+     * its leased engine for the whole run; the pool stops it on close.
+     */
+    private static GamePlayer createPlayer(String type, String side, StockfishPool pool, long movetime,
+            int workers, MonteCarloTree.Parallelism parallelism, SearchLimits limits) throws InterruptedException {
+        return switch (type) {
+            case "stockfish" ->
+                new StockfishPlayer(pool.lease(), "movetime " + movetime, movetime + 1000, side + " Stockfish");
+            case "mcts" ->
+                new MonteCarloPlayer(workers, parallelism, limits, side + " MCTS");
+            default ->
+                throw new IllegalArgumentException("Unknown player: " + type + " (expected stockfish or mcts)");
+        };
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: Sprt
+ *
+ * Sequential probability ratio test for engine matches. It decides between
+ * two hypotheses about the Elo difference of the first contestant over the
+ * second, H0: elo = elo0 and H1: elo = elo1, after every game, and stops the
+ * match as soon as the evidence is strong enough. A clear difference is
+ * decided within a few hundred games instead of a fixed, much larger count.
+ *
+ * The log-likelihood ratio uses the normal approximation of the trinomial
+ * (win/draw/loss) score distribution, as in common engine testing tools:
+ *
+ *   LLR = N (s1 - s0) (2 s - s0 - s1) / (2 var)
+ *
+ * where s is the mean score per game, var its per-game variance and s0, s1
+ * the expected scores for elo0 and elo1. The test accepts H1 when the LLR
+ * reaches log((1 - beta) / alpha) and H0 when it falls to
+ * log(beta / (1 - alpha)).
+ *
+ * Half a win, a draw and a loss are added to the counts before the score
+ * and variance are estimated, as fishtest does. Without them a one-sided
+ * match (only wins, only losses or only draws) has no variance and the test
+ * could never stop.
+ */
+package com.chess.stockfish;
+
+/**
+ * Sequential probability ratio test on win/draw/loss counts.
+ */
+public final class Sprt {
+
+    /**
+     * The state of the test.
+     */
+    public enum Decision {
+        CONTINUE, // Not enough evidence yet
+        ACCEPT_H0, // The difference is at most elo0
+        ACCEPT_H1  // The difference is at least elo1
+    }
+
+    private static final double PSEUDO_COUNT = 0.5; // Added to each of wins, draws and losses
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound; // Accept H0 at or below this LLR
+    private final double upperBound; // Accept H1 at or above this LLR
+
+    /**
+     * Creates a test.
+     *
+     * @param elo0 The Elo difference of the null hypothesis, e.g. 0.
+     * @param elo1 The Elo difference of the alternative hypothesis, e.g. 10.
+     * @param alpha The false positive rate, e.g. 0.05.
+     * @param beta The false negative rate, e.g. 0.05.
+     * @throws IllegalArgumentException If elo1 is not above elo0 or the error
+     * rates are not between 0 and 1.
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (!(elo1 > elo0)) {
+            throw new IllegalArgumentException("elo1 must be greater than elo0: " + elo0 + ", " + elo1);
+        }
+        if (!(alpha > 0 && alpha < 1 && beta > 0 && beta < 1)) {
+            throw new IllegalArgumentException("Error rates must be between 0 and 1: " + alpha + ", " + beta);
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Computes the log-likelihood ratio of H1 over H0.
+     *
+     * @param wins Games won by the first contestant.
+     * @param draws Drawn games.
+     * @param losses Games lost by the first contestant.
+     * @return The LLR, or 0 before any game.
+     */
+    public double llr(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        if (games == 0) {
+            return 0;
+        }
+        double score = regularizedScore(wins, draws, losses);
+        double variance = scoreVariance(wins, draws, losses);
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return games * (s1 - s0) * (2 * score - s0 - s1) / (2 * variance);
+    }
+
+    /**
+     * Decides the test for the results so far.
+     *
+     * @param wins Games won by the first contestant.
+     * @param draws Drawn games.
+     * @param losses Games lost by the first contestant.
+     * @return The decision.
+     */
+    public Decision decide(int wins, int draws, int losses) {
+        double llr = llr(wins, draws, losses);
+        if (llr >= upperBound) {
+            return Decision.ACCEPT_H1;
+        }
+        if (llr <= lowerBound) {
+            return Decision.ACCEPT_H0;
+        }
+        return Decision.CONTINUE;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Estimates the mean score per game from the results with the pseudo
+     * counts added.
+     *
+     * @param wins Games won.
+     * @param draws Drawn games.
+     * @param losses Games lost.
+     * @return The score, strictly between 0 and 1.
+     */
+    static double regularizedScore(int wins, int draws, int losses) {
+        double total = wins + draws + losses + 3 * PSEUDO_COUNT;
+        return (wins + PSEUDO_COUNT + 0.5 * (draws + PSEUDO_COUNT)) / total;
+    }
+
+    /**
+     * Estimates the variance of the score of a single game from the results
+     * with the pseudo counts added.
+     *
+     * @param wins Games won.
+     * @param draws Drawn games.
+     * @param losses Games lost.
+     * @return The variance, always positive.
+     */
+    static double scoreVariance(int wins, int draws, int losses) {
+        double w = wins + PSEUDO_COUNT;
+        double d = draws + PSEUDO_COUNT;
+        double l = losses + PSEUDO_COUNT;
+        double score = regularizedScore(wins, draws, losses);
+        return (w * (1 - score) * (1 - score)
+                + d * (0.5 - score) * (0.5 - score)
+                + l * score * score) / (w + d + l);
+    }
+
+    /**
+     * @param elo An Elo difference.
+     * @return The expected score per game of the stronger side, between 0 and 1.
+     */
+    public static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * @param score A score per game, between 0 and 1 exclusive.
+     * @return The Elo difference that gives this expected score.
+     */
+    public static double eloFromScore(double score) {
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SPRT[elo0=%.1f, elo1=%.1f, bounds=(%.2f, %.2f)]", elo0, elo1, lowerBound, upperBound);
+    }
+}
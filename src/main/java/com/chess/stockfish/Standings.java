@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: Standings
+ *
+ * The running score of a match between two contestants, counted from the
+ * first contestant's point of view whichever color it played. Games finish
+ * on many threads at once, so every method is synchronized; the counts are
+ * always read together, never one game apart.
+ */
+package com.chess.stockfish;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregated results of a match.
+ */
+public final class Standings {
+
+    private int wins; // Won by the first contestant
+    private int draws;
+    private int losses; // Lost by the first contestant
+    private int whiteWins;
+    private int blackWins;
+    private int errors; // Games abandoned because an engine failed
+    private long plies;
+    private static final double MIN_SCORE = 1e-3; // Keeps Elo estimates finite (about +/-1200)
+
+    private final Map<String, Integer> reasons = new TreeMap<>(); // How games ended
+
+    /**
+     * Adds a finished game.
+     *
+     * @param result The result of the game.
+     * @param firstIsWhite True if the first contestant had the white pieces.
+     */
+    public synchronized void add(GameResult result, boolean firstIsWhite) {
+        switch (result.getOutcome()) {
+            case WHITE_WINS -> {
+                whiteWins++;
+                if (firstIsWhite) {
+                    wins++;
+                } else {
+                    losses++;
+                }
+            }
+            case BLACK_WINS -> {
+                blackWins++;
+                if (firstIsWhite) {
+                    losses++;
+                } else {
+                    wins++;
+                }
+            }
+            case DRAW ->
+                draws++;
+        }
+        plies += result.getPlies();
+        // Illegal-move reasons name the move; count them under one entry
+        String reason = result.getReason().contains("illegal move") ? "illegal move" : result.getReason();
+        reasons.merge(reason, 1, Integer::sum);
+    }
+
+    /**
+     * Records a game that could not be finished.
+     */
+    public synchronized void addError() {
+        errors++;
+    }
+
+    public synchronized int getWins() {
+        return wins;
+    }
+
+    public synchronized int getDraws() {
+        return draws;
+    }
+
+    public synchronized int getLosses() {
+        return losses;
+    }
+
+    public synchronized int getGames() {
+        return wins + draws + losses;
+    }
+
+    public synchronized int getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return How often each ending occurred, e.g. "checkmate" = 12.
+     */
+    public synchronized Map<String, Integer> getReasons() {
+        return new TreeMap<>(reasons);
+    }
+
+    /**
+     * @return The first contestant's mean score per game, or 0.5 before any
+     * game.
+     */
+    public synchronized double getScore() {
+        int games = getGames();
+        return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+    }
+
+    /**
+     * @return The first contestant's Elo difference over the second,
+     * estimated from the score. Only wins or only losses give a large but
+     * finite value.
+     */
+    public synchronized double getElo() {
+        return eloFromScore(getScore());
+    }
+
+    /**
+     * @return Half the width of the 95% confidence interval of the Elo
+     * estimate, using the same regularized variance as Sprt, or NaN before
+     * any game.
+     */
+    public synchronized double getEloMargin() {
+        int games = getGames();
+        if (games == 0) {
+            return Double.NaN;
+        }
+        double score = getScore();
+        double deviation = 1.96 * Math.sqrt(Sprt.scoreVariance(wins, draws, losses) / games);
+        return (eloFromScore(score + deviation) - eloFromScore(score - deviation)) / 2;
+    }
+
+    /**
+     * Converts a score to Elo, clamped away from 0 and 1 where the Elo
+     * difference is infinite.
+     */
+    private static double eloFromScore(double score) {
+        return Sprt.eloFromScore(Math.max(MIN_SCORE, Math.min(1 - MIN_SCORE, score)));
+    }
+
+    /**
+     * @return The mean length of the finished games in plies.
+     */
+    public synchronized double getAveragePlies() {
+        int games = getGames();
+        return games == 0 ? 0 : (double) plies / games;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("+%d =%d -%d (white %d, black %d, errors %d), score %.3f, Elo %+.1f +/- %.1f, %.1f plies/game, %s",
+                wins, draws, losses, whiteWins, blackWins, errors, getScore(), getElo(), getEloMargin(),
+                getAveragePlies(), reasons);
+    }
+}
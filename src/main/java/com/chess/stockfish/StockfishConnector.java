@@ -2,7 +2,17 @@ package com.chess.stockfish;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /*
  * Copyright (c) 2024
@@ -42,6 +52,18 @@ import java.util.List;
  * - Setting options for the engine such as analysis depth, number of threads, and debug mode.
  * - Querying legal moves and verifying the validity of a given move.
  * - Handling game state updates to keep Stockfish informed of the current position on the chessboard.
+ * - Running searches asynchronously: search() returns a CompletableFuture and streams "info" updates.
+ *
+ * Engine output is read by a single reader thread (a virtual thread started with the engine), which
+ * classifies every line as a UciEvent. Lines belonging to a running search() go to that search;
+ * everything else is queued for the blocking methods (getResponse, getBestMove, getLegalMoves, ...).
+ * No other code reads the engine's output stream, so the methods can no longer steal each other's
+ * lines, and no blocking method waits for a silent engine for longer than RESPONSE_TIMEOUT_MS.
+ *
+ * Searches can be given a hard deadline (searchWithin). When it passes, the engine is sent "stop"
+ * and given a short grace period to answer with its best move so far. An engine that still does
+ * not answer is killed and restarted, and the "uci" handshake, the options set so far and the
+ * last position are sent to the new process, so the next search starts from a clean stream.
  *
  * Dependencies:
  * - The Stockfish engine executable, referenced by `ENGINE_SOURCE`. Ensure that the executable path is correctly specified.
@@ -51,6 +73,7 @@ import java.util.List;
  * - `startEngine()`: Starts the Stockfish engine process.
  * - `sendCommand(String command)`: Sends a specific UCI command to the engine.
  * - `getBestMove()`: Retrieves the best move suggested by Stockfish based on the current game state.
+ * - `search(String goArguments)`: Starts a search and returns a future for its result.
  * - `stopEngine()`: Stops the engine and releases all related resources.
  *
  * Notes:
@@ -60,24 +83,81 @@ import java.util.List;
  */
 public class StockfishConnector {
 
-    private Process stockfish;
-    private BufferedReader input;
+    private volatile Process stockfish;
     private BufferedWriter output;
-    private static final String ENGINE_SOURCE = "stockfish/stockfish-windows-x86-64-avx2";
-    private double rating;
+    static final String ENGINE_SOURCE = "stockfish/stockfish-windows-x86-64-avx2";
+    private final String enginePath; // Executable started by startEngine
+    private static final long RESPONSE_TIMEOUT_MS = 5000; // Longest wait of the blocking methods
+    private volatile double rating;
+    private volatile long stopGraceMs = 500; // Wait for "bestmove" after "stop"
+
+    // Replayed to a restarted engine so it continues where the old one was
+    private volatile boolean uciSent; // True once "uci" has been sent
+    private final Map<String, String> optionCommands = new LinkedHashMap<>(); // "setoption" by option name
+    private volatile String lastPosition; // Last "position" command
+
+    // Output not claimed by a running search, in arrival order
+    private final LinkedBlockingQueue<UciEvent> responses = new LinkedBlockingQueue<>();
+    // The search started with search() that has not received its bestmove yet
+    private final AtomicReference<PendingSearch> pendingSearch = new AtomicReference<>();
+    private volatile boolean running; // True while the reader thread is reading
+    // Last scored update of the best line reported outside search(); guarded by itself
+    private final SearchInfo lastInfo = new SearchInfo();
 
     /**
-     * Starts the Stockfish engine process and initializes input and output
-     * streams for communication.
+     * A search waiting for its "bestmove" line. Only the reader thread
+     * touches the info records and the rating.
+     */
+    private static final class PendingSearch {
+        final Process process; // The engine process running the search
+        final CompletableFuture<SearchResult> future = new CompletableFuture<>();
+        final Consumer<SearchInfo> infoListener; // May be null
+        final long startTime = System.currentTimeMillis();
+        final SearchInfo update = new SearchInfo(); // Refilled by every info line
+        final SearchInfo principal = new SearchInfo(); // Last scored update of the best line
+        double rating;
+
+        PendingSearch(Process process, Consumer<SearchInfo> infoListener) {
+            this.process = process;
+            this.infoListener = infoListener;
+        }
+    }
+
+    /**
+     * Creates a connector for the bundled Stockfish executable.
+     */
+    public StockfishConnector() {
+        this(ENGINE_SOURCE);
+    }
+
+    /**
+     * Creates a connector for a UCI engine executable, e.g. a Stockfish build
+     * for the machine the games run on.
+     *
+     * @param enginePath The path of the executable.
+     */
+    public StockfishConnector(String enginePath) {
+        this.enginePath = enginePath;
+    }
+
+    /**
+     * Starts the Stockfish engine process, opens the command stream and
+     * starts the virtual thread that reads the engine's output.
      *
      * @return true if the engine starts successfully, false if an error occurs
      * during the startup process.
      */
     public boolean startEngine() {
         try {
-            stockfish = new ProcessBuilder(ENGINE_SOURCE).start();
-            input = new BufferedReader(new InputStreamReader(stockfish.getInputStream()));
-            output = new BufferedWriter(new OutputStreamWriter(stockfish.getOutputStream()));
+            Process process = new ProcessBuilder(enginePath).start();
+            Reader input = new InputStreamReader(process.getInputStream());
+            synchronized (this) {
+                output = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+                stockfish = process;
+                responses.clear();
+                running = true;
+            }
+            Thread.ofVirtual().name("stockfish-reader").start(() -> readOutput(input, process));
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -85,33 +165,429 @@ public class StockfishConnector {
         }
     }
 
+    /**
+     * Body of the reader thread: splits the engine's output into lines in
+     * its own char buffer and hands each one to readLine, until the engine
+     * closes its output. Lines are not turned into strings here, so "info"
+     * lines can be parsed in place into a SearchInfo owned by this reader.
+     * A reader whose process has been replaced by a restart stops handing on
+     * lines.
+     *
+     * @param input The engine's output stream.
+     * @param process The process the stream belongs to.
+     */
+    private void readOutput(Reader input, Process process) {
+        char[] buf = new char[8192];
+        SearchInfo looseUpdate = new SearchInfo(); // Info lines outside search()
+        int start = 0; // First character of the current line
+        int end = 0;   // End of the characters read so far
+        int scan = 0;  // Where to continue looking for the end of the line
+        RuntimeException failure = null; // A bug while handling a line
+        try {
+            while (true) {
+                while (scan < end && buf[scan] != '\n') {
+                    scan++;
+                }
+                if (scan < end) {
+                    if (process != stockfish) {
+                        return; // Restarted; the new process has its own reader
+                    }
+                    int lineEnd = scan > start && buf[scan - 1] == '\r' ? scan - 1 : scan;
+                    readLine(buf, start, lineEnd, process, looseUpdate);
+                    start = ++scan;
+                    continue;
+                }
+
+                // No complete line left: move the partial line to the front and read more
+                System.arraycopy(buf, start, buf, 0, end - start);
+                end -= start;
+                scan -= start;
+                start = 0;
+                if (end == buf.length) {
+                    buf = Arrays.copyOf(buf, buf.length * 2); // A line longer than the buffer
+                }
+                int read = input.read(buf, end, buf.length - end);
+                if (read < 0) {
+                    break;
+                }
+                end += read;
+            }
+        } catch (IOException e) {
+            // The stream fails when the process is destroyed; treated like the end of output
+        } catch (RuntimeException e) {
+            // Without its reader the engine cannot be used; stop it so nobody waits for it
+            failure = e;
+            e.printStackTrace();
+            process.destroyForcibly();
+        } finally {
+            closeReader(process, failure);
+        }
+    }
+
+    /**
+     * Marks the engine as stopped after its reader ends: fails the pending
+     * search and queues CLOSED, so no caller waits for output that will not
+     * come. Checked and handed off under the lock that startEngine swaps the
+     * process with, so a restart in between cannot receive this reader's
+     * CLOSED or lose its search to it.
+     *
+     * @param process The process the reader belonged to.
+     * @param failure The exception that ended the reader, or null if the
+     * engine closed its output.
+     */
+    private void closeReader(Process process, RuntimeException failure) {
+        PendingSearch search;
+        synchronized (this) {
+            if (process != stockfish) {
+                return; // Restarted; the new process has its own reader
+            }
+            running = false;
+            search = pendingSearch.get();
+            if (search != null && (search.process != process || !pendingSearch.compareAndSet(search, null))) {
+                search = null;
+            }
+            responses.add(UciEvent.CLOSED);
+        }
+        if (search != null) {
+            search.future.completeExceptionally(failure == null
+                    ? new IOException("Stockfish exited during the search")
+                    : new IOException("Reading Stockfish output failed", failure));
+        }
+    }
+
+    /**
+     * Routes one line. "info" lines are parsed in place and never queued:
+     * while a search started with search() is running they go into the
+     * search's SearchInfo, otherwise into the reader's own, which keeps the
+     * rating and getLastInfo() up to date for the blocking methods. The
+     * "bestmove" line of a search completes it; all other output is queued.
+     *
+     * @param buf The buffer holding the line.
+     * @param start The index of the first character of the line.
+     * @param end The index after the last character of the line.
+     * @param process The process the line came from.
+     * @param looseUpdate The reader's SearchInfo for info lines outside search().
+     */
+    private void readLine(char[] buf, int start, int end, Process process, SearchInfo looseUpdate) {
+        PendingSearch search = pendingSearch.get();
+        if (search != null && search.process != process) {
+            search = null; // Started on a restarted engine; this line is stale
+        }
+        boolean info = end - start >= 4 && buf[start] == 'i' && buf[start + 1] == 'n'
+                && buf[start + 2] == 'f' && buf[start + 3] == 'o';
+        if (info && search == null) {
+            if (UciInfoParser.parse(buf, start, end, looseUpdate)
+                    && looseUpdate.getMultiPv() == 1 && looseUpdate.hasScore() && process == stockfish) {
+                synchronized (lastInfo) {
+                    lastInfo.copyFrom(looseUpdate);
+                }
+                if (!looseUpdate.isMate()) {
+                    this.rating = looseUpdate.getScoreCp() / 100.0;
+                }
+            }
+            return;
+        }
+        if (info) {
+            if (UciInfoParser.parse(buf, start, end, search.update)) {
+                if (search.update.getMultiPv() == 1 && search.update.hasScore()) {
+                    search.principal.copyFrom(search.update);
+                    if (!search.update.isMate()) {
+                        search.rating = search.update.getScoreCp() / 100.0;
+                    }
+                }
+                if (search.infoListener != null && !search.future.isDone()) {
+                    try {
+                        search.infoListener.accept(search.update);
+                    } catch (RuntimeException e) {
+                        failSearch(search, e);
+                    }
+                }
+            }
+            return;
+        }
+
+        UciEvent event = UciEvent.parse(new String(buf, start, end - start));
+        if (search != null && event.getType() == UciEvent.Type.BEST_MOVE) {
+            // Clear the slot first, so code run on completion can start the next search
+            if (!pendingSearch.compareAndSet(search, null)) {
+                return; // Failed by a restart in the meantime
+            }
+            this.rating = search.rating;
+            search.future.complete(new SearchResult(event.getMove(), event.getPonder(), search.rating,
+                    search.principal, System.currentTimeMillis() - search.startTime));
+        } else {
+            synchronized (this) {
+                if (process == stockfish) {
+                    responses.add(event); // Dropped once a restart has replaced the process
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends a search whose info listener threw: the future fails with the
+     * listener's exception and the engine is told to stop. Called on the
+     * reader thread.
+     *
+     * @param search The search.
+     * @param e The exception thrown by the listener.
+     */
+    private void failSearch(PendingSearch search, RuntimeException e) {
+        if (!pendingSearch.compareAndSet(search, null)) {
+            return; // Already ended by a restart
+        }
+        search.future.completeExceptionally(e);
+        try {
+            sendCommand("stop"); // The bestmove that follows is queued like any other line
+        } catch (IOException ignored) {
+            // The engine is gone; its reader reports that
+        }
+    }
+
+    /**
+     * Takes the next queued event, waiting until the deadline at most.
+     *
+     * @param deadline The System.currentTimeMillis() value to stop waiting at.
+     * @return The event, CLOSED if the engine has exited, or null on timeout.
+     * @throws InterruptedIOException If the thread is interrupted while waiting.
+     */
+    private UciEvent nextResponse(long deadline) throws InterruptedIOException {
+        if (!running && responses.isEmpty()) {
+            return UciEvent.CLOSED;
+        }
+        try {
+            return responses.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Stockfish");
+        }
+    }
+
     /**
      * Sends a specified command to the Stockfish engine for processing.
+     * Commands may be sent from any thread.
      *
      * @param command The UCI command to be sent to the engine.
      * @throws IOException If an I/O error occurs during communication with the
      * engine.
      */
-    public void sendCommand(String command) throws IOException {
+    public synchronized void sendCommand(String command) throws IOException {
+        if (command.startsWith("go")) {
+            synchronized (lastInfo) {
+                lastInfo.clear(); // Info from an earlier search must not describe this one
+            }
+        }
         output.write(command + "\n");
         output.flush();
+
+        // Remember the engine's state, to restore it after a restart
+        if (command.startsWith("position ")) {
+            lastPosition = command;
+        } else if (command.equals("uci")) {
+            uciSent = true;
+        } else if (command.startsWith("setoption name ")) {
+            int value = command.indexOf(" value ");
+            if (value >= 0) {
+                optionCommands.put(command.substring(0, value), command);
+            }
+        }
     }
 
     /**
-     * Reads and returns the response from the Stockfish engine until a
-     * termination keyword is found.
+     * Kills the engine process and starts a new one in the same state: the
+     * "uci" handshake (if it was done), every option set so far and the last
+     * position are sent again. A running search fails with an IOException.
+     *
+     * @return True if the new engine started and answered "isready".
+     */
+    public boolean restartEngine() {
+        PendingSearch search = pendingSearch.getAndSet(null);
+        if (search != null) {
+            search.future.completeExceptionally(new IOException("Stockfish was restarted during the search"));
+        }
+        Process old = stockfish;
+        if (old != null) {
+            old.destroyForcibly();
+        }
+        if (!startEngine()) {
+            return false;
+        }
+        try {
+            if (uciSent) {
+                sendCommand("uci");
+                if (!getResponse().contains("uciok")) {
+                    return false;
+                }
+            }
+            List<String> options;
+            synchronized (this) {
+                options = new ArrayList<>(optionCommands.values());
+            }
+            for (String option : options) {
+                sendCommand(option);
+            }
+            if (!isEngineReady()) {
+                return false;
+            }
+            String position = lastPosition;
+            if (position != null) {
+                sendCommand(position);
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sets how long searchWithin and getBestMove wait for "bestmove" after
+     * sending "stop" before they restart the engine.
+     *
+     * @param graceMs The grace period in milliseconds.
+     * @throws IllegalArgumentException If graceMs is negative.
+     */
+    public void setStopGracePeriod(long graceMs) {
+        if (graceMs < 0) {
+            throw new IllegalArgumentException("Grace period must not be negative: " + graceMs);
+        }
+        this.stopGraceMs = graceMs;
+    }
+
+    /**
+     * Starts a search and returns at once. The engine's "info" lines are
+     * parsed and passed to the listener while it thinks, and the future completes when
+     * the "bestmove" line arrives, so the caller can do other work in the
+     * meantime. Cancelling the future sends "stop" to the engine.
+     *
+     * Only one search can run at a time. The listener and any actions
+     * chained to the future run on the reader thread and must not block.
+     * The listener is handed the same SearchInfo for every line; it must
+     * copy it (SearchInfo.copyFrom) to keep an update.
+     *
+     * @param goArguments The arguments of the "go" command, e.g. "movetime 1000".
+     * @param infoListener Receives each progress update of the search, or null.
+     * @return A future completed with the result, or exceptionally with an
+     * IOException if the engine exits first.
+     * @throws IOException If the "go" command cannot be sent.
+     * @throws IllegalStateException If the engine is not running or a search
+     * is still in progress.
+     */
+    public CompletableFuture<SearchResult> search(String goArguments, Consumer<SearchInfo> infoListener) throws IOException {
+        if (!running) {
+            throw new IllegalStateException("Stockfish is not running");
+        }
+        PendingSearch search = new PendingSearch(stockfish, infoListener);
+        search.rating = this.rating;
+        if (!pendingSearch.compareAndSet(null, search)) {
+            throw new IllegalStateException("A search is already in progress");
+        }
+        try {
+            sendCommand("go " + goArguments);
+        } catch (IOException e) {
+            pendingSearch.compareAndSet(search, null);
+            throw e;
+        }
+        search.future.whenComplete((result, error) -> {
+            if (search.future.isCancelled()) {
+                try {
+                    sendCommand("stop"); // The bestmove that follows ends the search
+                } catch (IOException e) {
+                    // The engine is gone; the reader releases the search when its output closes
+                }
+            }
+        });
+        return search.future;
+    }
+
+    /**
+     * Runs a search with a hard deadline and waits for its result. If the
+     * deadline passes, the engine is sent "stop" and has the grace period
+     * (see setStopGracePeriod) to answer with its best move so far. If it
+     * still does not answer, or exits, it is restarted and resynced with
+     * restartEngine(), and the search fails. Either way the call returns
+     * within timeoutMs plus the grace period, plus the restart when one is
+     * needed.
+     *
+     * @param goArguments The arguments of the "go" command, e.g. "movetime 1000".
+     * @param timeoutMs The deadline, in milliseconds from now.
+     * @param infoListener Receives each progress update of the search, or null.
+     * @return The result of the search.
+     * @throws IOException If the engine did not answer in time or exited; it
+     * has been restarted when this is thrown.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     * @throws IllegalStateException If the engine is not running or a search
+     * is still in progress.
+     */
+    public SearchResult searchWithin(String goArguments, long timeoutMs, Consumer<SearchInfo> infoListener)
+            throws IOException, InterruptedException {
+        CompletableFuture<SearchResult> search = search(goArguments, infoListener);
+        try {
+            try {
+                return search.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                try {
+                    sendCommand("stop");
+                } catch (IOException ignored) {
+                    // The engine is gone; the wait below fails at once
+                }
+            }
+            try {
+                return search.get(stopGraceMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                boolean restarted = restartEngine();
+                throw new IOException("Stockfish did not answer \"stop\" within " + stopGraceMs + " ms; "
+                        + (restarted ? "restarted it" : "failed to restart it"));
+            }
+        } catch (ExecutionException e) {
+            boolean restarted = restartEngine();
+            throw new IOException("Stockfish search failed; " + (restarted ? "restarted it" : "failed to restart it"),
+                    e.getCause());
+        }
+    }
+
+    /**
+     * Starts a search without following its progress.
+     *
+     * @param goArguments The arguments of the "go" command, e.g. "movetime 1000".
+     * @return A future completed with the result of the search.
+     * @throws IOException If the "go" command cannot be sent.
+     * @see #search(String, Consumer)
+     */
+    public CompletableFuture<SearchResult> search(String goArguments) throws IOException {
+        return search(goArguments, null);
+    }
+
+    /**
+     * @return True while the engine process runs and its output is being read.
+     */
+    public boolean isAlive() {
+        return running && stockfish != null && stockfish.isAlive();
+    }
+
+    /**
+     * @return True while a search started with search() has not received its bestmove.
+     */
+    public boolean isSearching() {
+        return pendingSearch.get() != null;
+    }
+
+    /**
+     * Returns the queued responses from the Stockfish engine until a
+     * termination keyword is found, the engine exits, or RESPONSE_TIMEOUT_MS
+     * passes.
      *
      * @return A string containing the response from the engine, up to and
      * including specific keywords such as "uciok", "bestmove", or "readyok".
-     * @throws IOException If an I/O error occurs while reading from the
-     * engine's output stream.
+     * @throws IOException If the thread is interrupted while waiting.
      */
     public String getResponse() throws IOException {
         StringBuilder sb = new StringBuilder();
-        String line;
-        while ((line = input.readLine()) != null) {
-            sb.append(line).append("\n");
-            if (line.equals("uciok") || line.startsWith("bestmove") || line.equals("readyok")) {
+        long deadline = System.currentTimeMillis() + RESPONSE_TIMEOUT_MS;
+        UciEvent event;
+        while ((event = nextResponse(deadline)) != null && event.getType() != UciEvent.Type.CLOSED) {
+            sb.append(event.getLine()).append("\n");
+            UciEvent.Type type = event.getType();
+            if (type == UciEvent.Type.UCI_OK || type == UciEvent.Type.BEST_MOVE || type == UciEvent.Type.READY_OK) {
                 break;
             }
         }
@@ -120,63 +596,86 @@ public class StockfishConnector {
 
     /**
      * Retrieves the best move suggested by the Stockfish engine based on the
-     * current game state.
+     * current game state, after a "go" command sent with sendCommand.
+     *
+     * If no move arrives within RESPONSE_TIMEOUT_MS, the engine is sent
+     * "stop" and the move it then reports is returned. If it does not answer
+     * within the grace period either, it is restarted and resynced, so its
+     * late output cannot be read as the answer to a later command.
      *
      * @return A string representing the best move in standard algebraic
-     * notation.
-     * @throws IOException If an I/O error occurs while reading from the
-     * engine's output stream.
+     * notation, or null if the engine had to be restarted or has exited.
+     * @throws IOException If the thread is interrupted while waiting.
      */
     public String getBestMove() throws IOException {
-        String bestMove = null;
-        String line;
-        long startTime = System.currentTimeMillis();
-
-        while ((line = input.readLine()) != null) {
-            // System.out.println("Stockfish response: " + line); // Debug log
-
-            // Check for and parse the evaluation score if it contains "cp"
-            if (line.contains("cp")) {
-                String[] parts = line.split(" ");
-                for (int i = 0; i < parts.length; i++) {
-                    if (parts[i].equals("cp")) {
-                        this.rating = Double.parseDouble(parts[i + 1]) / 100.0;
-                        // System.out.println("Updated rating: " + this.rating); // Debug log
-                    }
-                }
+        String bestMove = awaitBestMove(System.currentTimeMillis() + RESPONSE_TIMEOUT_MS);
+        if (bestMove == null && running) {
+            try {
+                sendCommand("stop");
+                bestMove = awaitBestMove(System.currentTimeMillis() + stopGraceMs);
+            } catch (IOException e) {
+                // The engine is gone; restarted below
             }
-
-            // Stop reading when the "bestmove" line is found
-            if (line.startsWith("bestmove")) {
-                String[] parts = line.split(" ");
-                bestMove = parts[1];
-                break;
+            if (bestMove == null) {
+                restartEngine();
             }
+        }
+        return bestMove;
+    }
 
-            // Exit the loop if it takes too long to prevent potential infinite looping
-            if (System.currentTimeMillis() - startTime > 5000) {
-                // System.out.println("Timeout reached while reading response for best move.");
-                break;
+    /**
+     * Reads queued output until a "bestmove" line. The reader thread keeps
+     * the rating and getLastInfo() up to date from the info lines.
+     *
+     * @param deadline The System.currentTimeMillis() value to stop waiting at.
+     * @return The best move, or null if the deadline passed or the engine exited.
+     * @throws IOException If the thread is interrupted while waiting.
+     */
+    private String awaitBestMove(long deadline) throws IOException {
+        UciEvent event;
+
+        // The deadline is checked while waiting, not only between lines
+        while ((event = nextResponse(deadline)) != null && event.getType() != UciEvent.Type.CLOSED) {
+            // Stop reading when the "bestmove" line is found
+            if (event.getType() == UciEvent.Type.BEST_MOVE) {
+                return event.getMove();
             }
         }
 
-        return bestMove;
+        return null;
+    }
+
+    /**
+     * Extracts the move from a UCI "bestmove" line.
+     *
+     * @param line A line starting with "bestmove".
+     * @return The move in UCI notation (e.g., "e2e4"), or null if the line
+     * is truncated and has none.
+     */
+    static String parseBestMove(String line) {
+        String[] parts = line.trim().split(" +");
+        return parts.length > 1 ? parts[1] : null;
     }
 
     /**
      * Stops the Stockfish engine and releases all associated resources.
      *
      * Sends the "quit" command to gracefully terminate the engine process and
-     * destroys the process to ensure that it is properly closed. Catches and
-     * logs any IOException that occurs during the process.
+     * destroys the process to ensure that it is properly closed, even if the
+     * engine has already exited and the command cannot be sent. Does nothing
+     * if the engine was never started.
      */
     public void stopEngine() {
+        Process process = stockfish;
+        if (process == null) {
+            return; // Never started
+        }
         try {
             sendCommand("quit");
-            stockfish.destroy();
         } catch (IOException e) {
-            e.printStackTrace();
+            // The engine has already exited; destroy() below releases the process
         }
+        process.destroy();
     }
 
     /**
@@ -197,6 +696,41 @@ public class StockfishConnector {
         }
     }
 
+    /**
+     * Sets the engine's position directly from FEN. The command has the same
+     * size however long the game has been going, which makes it the way to
+     * load any position for analysis.
+     *
+     * @param position The position to analyse or play from.
+     * @throws IOException If an I/O error occurs while sending the command to
+     * the engine.
+     */
+    public void updateGameState(PositionSnapshot position) throws IOException {
+        sendCommand("position fen " + position.toFen());
+    }
+
+    /**
+     * Sets the engine's position to a FEN position followed by moves. Keeping
+     * the FEN at the last capture or pawn move and sending only the moves
+     * since then bounds the command by the fifty-move rule, while the engine
+     * still sees every position it needs for repetition detection.
+     *
+     * @param fen The position the moves start from.
+     * @param moves The moves played since, in UCI format.
+     * @throws IOException If an I/O error occurs while sending the command to
+     * the engine.
+     */
+    public void updateGameState(String fen, List<String> moves) throws IOException {
+        StringBuilder command = new StringBuilder(100 + moves.size() * 6).append("position fen ").append(fen);
+        if (!moves.isEmpty()) {
+            command.append(" moves");
+            for (String move : moves) {
+                command.append(' ').append(move);
+            }
+        }
+        sendCommand(command.toString());
+    }
+
     /**
      * Instructs the Stockfish engine to calculate the best move within a
      * specified time limit.
@@ -213,15 +747,23 @@ public class StockfishConnector {
     /**
      * Checks if the Stockfish engine is ready to receive new commands.
      *
-     * @return true if the engine responds with "readyok", indicating it is
-     * ready; false otherwise.
+     * @return true if the engine responds with "readyok" within
+     * RESPONSE_TIMEOUT_MS, indicating it is ready; false otherwise.
      * @throws IOException If an I/O error occurs while sending the command or
      * reading the response from the engine.
      */
     public boolean isEngineReady() throws IOException {
+        responses.clear(); // Drop stale output so it cannot be taken for the answer
         sendCommand("isready");
-        String response = getResponse();
-        return response.contains("readyok");
+        long deadline = System.currentTimeMillis() + RESPONSE_TIMEOUT_MS;
+        UciEvent event;
+        // Skip output of earlier commands (e.g. a late bestmove) until the answer arrives
+        while ((event = nextResponse(deadline)) != null && event.getType() != UciEvent.Type.CLOSED) {
+            if (event.getType() == UciEvent.Type.READY_OK) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -258,10 +800,13 @@ public class StockfishConnector {
      * reading the response from the engine.
      */
     public List<String> getLegalMoves() throws IOException {
+        responses.clear(); // Drop stale output so it cannot be taken for the answer
         sendCommand("d");
         List<String> legalMoves = new ArrayList<>();
-        String line;
-        while ((line = input.readLine()) != null) {
+        long deadline = System.currentTimeMillis() + RESPONSE_TIMEOUT_MS;
+        UciEvent event;
+        while ((event = nextResponse(deadline)) != null && event.getType() != UciEvent.Type.CLOSED) {
+            String line = event.getLine();
             if (line.startsWith("Legal moves:")) {
                 String[] moves = line.replace("Legal moves: ", "").split(" ");
                 for (String move : moves) {
@@ -287,19 +832,25 @@ public class StockfishConnector {
     }
 
     /**
-     * Retrieves the full analysis output from the Stockfish engine up to the
-     * point where it finds the best move.
+     * Retrieves the analysis output from the Stockfish engine up to the point
+     * where it finds the best move. Info lines are parsed as they arrive
+     * instead of being kept, so the search is summarized by its last scored
+     * update (see getLastInfo) before the "bestmove" line.
      *
-     * @return A string containing the detailed analysis output from the engine.
+     * @return A string containing the analysis output from the engine.
      * @throws IOException If an I/O error occurs while reading the response
      * from the engine.
      */
     public String getAnalysisOutput() throws IOException {
         StringBuilder sb = new StringBuilder();
-        String line;
-        while ((line = input.readLine()) != null) {
-            sb.append(line).append("\n");
-            if (line.startsWith("bestmove")) {
+        long deadline = System.currentTimeMillis() + RESPONSE_TIMEOUT_MS;
+        UciEvent event;
+        while ((event = nextResponse(deadline)) != null && event.getType() != UciEvent.Type.CLOSED) {
+            if (event.getType() == UciEvent.Type.BEST_MOVE) {
+                sb.append(getLastInfo()).append("\n");
+            }
+            sb.append(event.getLine()).append("\n");
+            if (event.getType() == UciEvent.Type.BEST_MOVE) {
                 break;
             }
         }
@@ -356,6 +907,22 @@ public class StockfishConnector {
         return this.rating;
     }
 
+    /**
+     * Returns the last scored update of the best line from a search that was
+     * not started with search(), e.g. one read with getBestMove(). Unlike
+     * the rating, it includes mate scores, the depth and the principal
+     * variation.
+     *
+     * @return A copy of the update; it has no score before the first one.
+     */
+    public SearchInfo getLastInfo() {
+        SearchInfo copy = new SearchInfo();
+        synchronized (lastInfo) {
+            copy.copyFrom(lastInfo);
+        }
+        return copy;
+    }
+
 
 }
 
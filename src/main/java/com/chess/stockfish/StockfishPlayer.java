@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: StockfishPlayer
+ *
+ * A GamePlayer backed by a running StockfishConnector. Each move syncs the
+ * engine from the game's last irreversible position and runs one search
+ * with a hard deadline, so a stuck engine costs at most the deadline plus
+ * the stop grace period before it is restarted.
+ */
+package com.chess.stockfish;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Plays the moves chosen by a Stockfish engine.
+ */
+public final class StockfishPlayer implements GamePlayer {
+
+    private final StockfishConnector engine; // Started by the caller
+    private final String goArguments; // e.g., "movetime 100"
+    private final long deadlineMs; // Hard limit of each search
+    private final String name;
+
+    /**
+     * Creates a player for a started engine.
+     *
+     * @param engine The engine; it must already be started.
+     * @param goArguments The arguments of each "go" command, e.g., "movetime 100".
+     * @param deadlineMs The time after which a search is stopped.
+     * @param name The name used in game reports.
+     */
+    public StockfishPlayer(StockfishConnector engine, String goArguments, long deadlineMs, String name) {
+        this.engine = engine;
+        this.goArguments = goArguments;
+        this.deadlineMs = deadlineMs;
+        this.name = name;
+    }
+
+    /**
+     * Tells the engine that a new game starts, so it does not use the hash
+     * entries of the previous game.
+     */
+    @Override
+    public void newGame(GameState game) throws IOException {
+        engine.clearHash();
+    }
+
+    @Override
+    public String chooseMove(GameState game, String baseFen, List<String> movesSinceBase)
+            throws IOException, InterruptedException {
+        engine.updateGameState(baseFen, movesSinceBase);
+        String move = engine.searchWithin(goArguments, deadlineMs, null).getBestMove();
+        return move == null || move.equals("(none)") ? null : move;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: StockfishPool
+ *
+ * A fixed set of Stockfish processes shared by games and analysis jobs. Every
+ * engine in the pool has already answered "uci" and "isready", so a caller
+ * that leases one can send a position straight away instead of paying for
+ * process startup and network loading on every game.
+ *
+ * Leased engines are returned with release(). The pool stops any search
+ * still running, starts a new game ("ucinewgame") from the starting
+ * position and clears the hash, then checks with "isready" that the engine
+ * still answers. An engine that has
+ * exited or does not answer is shut down and replaced by a fresh one in the
+ * background, so the pool keeps its size.
+ *
+ * Usage:
+ * - `new StockfishPool(4)`: starts four engines.
+ * - `lease()` / `release(engine)`: borrow an engine for one game or job.
+ * - `close()`: stops all engines.
+ */
+package com.chess.stockfish;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of warm Stockfish engines.
+ */
+public final class StockfishPool implements AutoCloseable {
+
+    private static final int START_ATTEMPTS = 3; // Tries to start a replacement engine
+
+    private final Map<String, String> options; // UCI options applied to every engine
+    private final String enginePath; // Executable of every engine
+    private final LinkedBlockingQueue<StockfishConnector> idle = new LinkedBlockingQueue<>();
+    private final List<StockfishConnector> engines = Collections.synchronizedList(new ArrayList<>());
+    private final Set<StockfishConnector> leased = ConcurrentHashMap.newKeySet(); // Handed out, not yet released
+    private final AtomicInteger live = new AtomicInteger(); // Engines running or being replaced
+    private volatile boolean closed;
+
+    /**
+     * Starts a pool of engines with their default options.
+     *
+     * @param size The number of engines (at least 1).
+     * @throws IOException If an engine fails to start or to answer.
+     * @throws IllegalArgumentException If size is less than 1.
+     */
+    public StockfishPool(int size) throws IOException {
+        this(size, Map.of());
+    }
+
+    /**
+     * Starts a pool of engines. The options are set on every engine before
+     * its first "isready", e.g. "Threads" = "1" and "Hash" = "16" to let many
+     * engines share the machine.
+     *
+     * @param size The number of engines (at least 1).
+     * @param options UCI option names and values.
+     * @throws IOException If an engine fails to start or to answer; engines
+     * already started are stopped.
+     * @throws IllegalArgumentException If size is less than 1.
+     */
+    public StockfishPool(int size, Map<String, String> options) throws IOException {
+        this(size, options, StockfishConnector.ENGINE_SOURCE);
+    }
+
+    /**
+     * Starts a pool of engines from a given executable, with the options set
+     * on every engine before its first "isready".
+     *
+     * @param size The number of engines (at least 1).
+     * @param options UCI option names and values.
+     * @param enginePath The path of the engine executable.
+     * @throws IOException If an engine fails to start or to answer; engines
+     * already started are stopped.
+     * @throws IllegalArgumentException If size is less than 1.
+     */
+    public StockfishPool(int size, Map<String, String> options, String enginePath) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1: " + size);
+        }
+        this.options = Collections.unmodifiableMap(new LinkedHashMap<>(options));
+        this.enginePath = enginePath;
+        try {
+            for (int i = 0; i < size; i++) {
+                StockfishConnector engine = startEngine();
+                engines.add(engine);
+                idle.add(engine);
+                live.incrementAndGet();
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts an engine and waits until it has answered "uci" and "isready".
+     *
+     * @return The ready engine.
+     * @throws IOException If the engine does not start or does not answer.
+     */
+    private StockfishConnector startEngine() throws IOException {
+        StockfishConnector engine = new StockfishConnector(enginePath);
+        if (!engine.startEngine()) {
+            throw new IOException("Failed to start Stockfish");
+        }
+        try {
+            engine.sendCommand("uci");
+            if (!engine.getResponse().contains("uciok")) {
+                throw new IOException("Stockfish did not answer \"uci\"");
+            }
+            for (Map.Entry<String, String> option : options.entrySet()) {
+                engine.setOption(option.getKey(), option.getValue());
+            }
+            if (!engine.isEngineReady()) {
+                throw new IOException("Stockfish did not answer \"isready\"");
+            }
+            return engine;
+        } catch (IOException e) {
+            engine.stopEngine();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes an engine from the pool, waiting until one is free.
+     *
+     * @return A ready engine, set to the starting position of a new game.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     * @throws IllegalStateException If the pool is closed or has no engines left.
+     */
+    public StockfishConnector lease() throws InterruptedException {
+        StockfishConnector engine = lease(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        if (engine == null) {
+            throw new IllegalStateException("No Stockfish engines left in the pool");
+        }
+        return engine;
+    }
+
+    /**
+     * Takes an engine from the pool, waiting up to the given time for one to
+     * become free. Engines that exited while idle are replaced, not handed out.
+     *
+     * @param timeout The longest time to wait.
+     * @param unit The unit of the timeout.
+     * @return A ready engine, or null if none became free in time.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     * @throws IllegalStateException If the pool is closed.
+     */
+    public StockfishConnector lease(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = timeout == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            if (closed) {
+                throw new IllegalStateException("Stockfish pool is closed");
+            }
+            if (live.get() == 0) {
+                return null; // Every replacement failed; waiting would never end
+            }
+            // Wake up now and then to notice a closed or exhausted pool
+            long wait = Math.min(TimeUnit.SECONDS.toNanos(1), deadline - System.nanoTime());
+            if (wait <= 0) {
+                return null;
+            }
+            StockfishConnector engine = idle.poll(wait, TimeUnit.NANOSECONDS);
+            if (engine != null) {
+                if (engine.isAlive()) {
+                    leased.add(engine);
+                    return engine;
+                }
+                replace(engine);
+            }
+        }
+    }
+
+    /**
+     * Returns a leased engine. Any running search is stopped, the engine
+     * starts a new game from the starting position with an empty hash table,
+     * and it goes back to the pool if it still answers "isready". Otherwise
+     * it is replaced.
+     *
+     * @param engine An engine obtained from lease().
+     * @throws IllegalArgumentException If the engine is not currently leased
+     * from this pool, e.g. because it was already released; adding it to the
+     * pool twice would hand the same process to two callers.
+     */
+    public void release(StockfishConnector engine) {
+        if (!leased.remove(engine)) {
+            throw new IllegalArgumentException("Engine is not leased from this pool");
+        }
+        if (closed) {
+            engine.stopEngine();
+            return;
+        }
+        try {
+            if (engine.isAlive()) {
+                engine.sendCommand("stop"); // Ignored by an engine that is not searching
+                engine.sendCommand("ucinewgame");
+                engine.sendCommand("position startpos");
+                engine.sendCommand("setoption name Clear Hash");
+                if (engine.isEngineReady()) {
+                    idle.add(engine);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // Treated like an engine that stopped answering
+        }
+        replace(engine);
+    }
+
+    /**
+     * Shuts down a crashed or unresponsive engine and starts a replacement on
+     * a virtual thread, so the caller does not wait for the new process.
+     *
+     * @param engine The engine to discard.
+     */
+    private void replace(StockfishConnector engine) {
+        engines.remove(engine);
+        engine.stopEngine();
+        Thread.ofVirtual().name("stockfish-pool-restart").start(() -> {
+            for (int attempt = 1; attempt <= START_ATTEMPTS && !closed; attempt++) {
+                try {
+                    StockfishConnector fresh = startEngine();
+                    engines.add(fresh);
+                    idle.add(fresh);
+                    if (closed) {
+                        fresh.stopEngine(); // The pool was closed while the engine started
+                    }
+                    return;
+                } catch (IOException e) {
+                    System.out.println("Failed to restart Stockfish (attempt " + attempt + "): " + e.getMessage());
+                }
+            }
+            live.decrementAndGet();
+        });
+    }
+
+    /**
+     * @return The number of engines waiting to be leased.
+     */
+    public int idleCount() {
+        return idle.size();
+    }
+
+    /**
+     * @return The number of engines in the pool, including leased ones and
+     * ones being replaced.
+     */
+    public int size() {
+        return live.get();
+    }
+
+    /**
+     * Stops every engine, including leased ones. Engines released after this
+     * are stopped again, which does no harm.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        idle.clear();
+        synchronized (engines) {
+            for (StockfishConnector engine : engines) {
+                engine.stopEngine();
+            }
+            engines.clear();
+        }
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: TournamentRunner
+ *
+ * Plays a match of many headless games between two contestants, e.g.
+ * Stockfish against a Monte Carlo setting, or two Monte Carlo settings
+ * against each other, and runs the games in parallel.
+ *
+ * Every game runs on its own virtual thread with its own GameState and its
+ * own players. Stockfish contestants lease an engine from a StockfishPool
+ * for the length of one game and give it back afterwards, so the pool
+ * bounds how many engine processes run. A semaphore bounds how many games
+ * run at once, so thousands of queued games do not all start searching.
+ * A game takes all of its engines under one lock, so two games can never
+ * each hold one engine while they wait for a second.
+ *
+ * Games come in pairs: each opening of the suite is played twice with the
+ * colors swapped, so neither side profits from a lucky opening or from the
+ * first move. Results are collected in a Standings object from the first
+ * contestant's point of view. With an SPRT configured, the match stops as
+ * soon as the test is decided; games already running are finished and
+ * counted, and no new games start.
+ *
+ * Options of the command-line runner:
+ * - `--first SPEC`, `--second SPEC`: the contestants (see Contestant),
+ *   default `mcts:time=100` and `stockfish:movetime=100`.
+ * - `--games N`: maximum number of games (default 1000).
+ * - `--concurrency N`: games played at once (default: processors).
+ * - `--openings FILE`: a FEN per line instead of the built-in suite.
+ * - `--sprt ELO0 ELO1`, `--alpha A`, `--beta B`: stop early by SPRT.
+ * - `--max-plies N`: plies after which a game is drawn (default 400).
+ * - `--threads N`, `--hash MB`, `--skill L`, `--engine PATH`: Stockfish.
+ * - `--quiet`: print only the summary.
+ */
+package com.chess.stockfish;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs a parallel match between two contestants.
+ */
+public final class TournamentRunner {
+
+    private final Contestant first;
+    private final Contestant second;
+    private final StockfishPool pool; // Null if neither contestant uses Stockfish
+    private final int concurrency; // Games played at once
+    private List<String> openings = OpeningSuite.standard();
+    private int maxPlies = 400;
+    private Sprt sprt; // Null to play all games
+    private boolean quiet;
+
+    // Games take their engines one game at a time, so no two games each hold one engine
+    // while waiting for a second
+    private final ReentrantLock leaseLock = new ReentrantLock(true);
+    private final Standings standings = new Standings();
+    private volatile Sprt.Decision decision = Sprt.Decision.CONTINUE;
+
+    /**
+     * Creates a match.
+     *
+     * @param first The first contestant; results are counted for it.
+     * @param second The second contestant.
+     * @param pool The engines leased by Stockfish contestants, or null if
+     * neither contestant uses Stockfish.
+     * @param concurrency The number of games played at once (at least 1).
+     * @throws IllegalArgumentException If concurrency is less than 1, or the
+     * pool is missing or too small to give every running game its engines.
+     */
+    public TournamentRunner(Contestant first, Contestant second, StockfishPool pool, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1: " + concurrency);
+        }
+        int enginesPerGame = enginesPerGame(first, second);
+        // A game holds its first engine while it waits for the second, so every running game needs its own
+        if (enginesPerGame > 0 && (pool == null || pool.size() < enginesPerGame * concurrency)) {
+            throw new IllegalArgumentException("Playing " + concurrency + " games at once needs a pool of "
+                    + enginesPerGame * concurrency + " engines");
+        }
+        this.first = first;
+        this.second = second;
+        this.pool = pool;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @param openings The starting positions, as FENs (see OpeningSuite).
+     * @throws IllegalArgumentException If the list is empty.
+     */
+    public void setOpenings(List<String> openings) {
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("The opening suite is empty");
+        }
+        this.openings = List.copyOf(openings);
+    }
+
+    /**
+     * @param maxPlies The number of half-moves after which a game is drawn.
+     */
+    public void setMaxPlies(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * @param sprt The test that stops the match early, or null to play every
+     * game.
+     */
+    public void setSprt(Sprt sprt) {
+        this.sprt = sprt;
+    }
+
+    /**
+     * @param quiet True to print nothing while the match runs.
+     */
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /**
+     * Plays the match and waits for every started game to finish.
+     *
+     * @param games The maximum number of games.
+     * @return The final standings.
+     * @throws InterruptedException If the thread is interrupted while
+     * starting games; running games are interrupted and the standings so
+     * far are returned by getStandings.
+     */
+    public Standings run(int games) throws InterruptedException {
+        Semaphore slots = new Semaphore(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                for (int i = 0; i < games && decision == Sprt.Decision.CONTINUE; i++) {
+                    slots.acquire();
+                    int index = i;
+                    executor.execute(() -> {
+                        try {
+                            playGame(index);
+                        } finally {
+                            slots.release();
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                throw e;
+            }
+        } // Closing the executor waits for the running games
+        return standings;
+    }
+
+    /**
+     * @return The standings so far.
+     */
+    public Standings getStandings() {
+        return standings;
+    }
+
+    /**
+     * @return The SPRT decision, CONTINUE if the test is undecided or not used.
+     */
+    public Sprt.Decision getDecision() {
+        return decision;
+    }
+
+    /**
+     * Plays one game of the match. Game 2k and 2k + 1 use the same opening
+     * with the colors swapped.
+     */
+    private void playGame(int index) {
+        if (decision != Sprt.Decision.CONTINUE) {
+            return; // Decided while this game was waiting for a slot
+        }
+        String opening = openings.get((index / 2) % openings.size());
+        boolean firstIsWhite = index % 2 == 0;
+        StockfishConnector firstEngine = null;
+        StockfishConnector secondEngine = null;
+        try {
+            leaseLock.lockInterruptibly();
+            try {
+                firstEngine = first.needsEngine() ? leaseEngine() : null;
+                secondEngine = second.needsEngine() ? leaseEngine() : null;
+            } finally {
+                leaseLock.unlock();
+            }
+            GamePlayer firstPlayer = first.createPlayer(firstEngine);
+            GamePlayer secondPlayer = second.createPlayer(secondEngine);
+            HeadlessGame game = firstIsWhite
+                    ? new HeadlessGame(firstPlayer, secondPlayer, maxPlies)
+                    : new HeadlessGame(secondPlayer, firstPlayer, maxPlies);
+            GameResult result = game.play(opening);
+            record(index, firstIsWhite, result);
+        } catch (IOException | RuntimeException e) {
+            // An engine failure or a bug in a player; the pool replaces an engine that failed
+            standings.addError();
+            if (!quiet) {
+                System.err.println("Game " + (index + 1) + " abandoned: " + e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (firstEngine != null) {
+                pool.release(firstEngine);
+            }
+            if (secondEngine != null) {
+                pool.release(secondEngine);
+            }
+        }
+    }
+
+    /**
+     * Leases an engine for a game, with the lease lock held. The other
+     * engines are held by games that are playing and will release them, so
+     * the wait ends unless the pool has lost engines it could not replace;
+     * that is checked while waiting.
+     *
+     * @return The engine.
+     * @throws IllegalStateException If the pool has fewer engines left than
+     * one game needs, or is closed.
+     */
+    private StockfishConnector leaseEngine() throws InterruptedException {
+        while (true) {
+            if (pool.size() < enginesPerGame(first, second)) {
+                throw new IllegalStateException("The Stockfish pool has fewer engines left than a game needs");
+            }
+            StockfishConnector engine = pool.lease(1, TimeUnit.SECONDS);
+            if (engine != null) {
+                return engine;
+            }
+        }
+    }
+
+    /**
+     * Adds a result to the standings and updates the SPRT decision. Both
+     * happen under one lock, so the decision always matches the counts.
+     */
+    private void record(int index, boolean firstIsWhite, GameResult result) {
+        synchronized (standings) {
+            standings.add(result, firstIsWhite);
+            String test = "";
+            if (sprt != null) {
+                int wins = standings.getWins();
+                int draws = standings.getDraws();
+                int losses = standings.getLosses();
+                if (decision == Sprt.Decision.CONTINUE) {
+                    decision = sprt.decide(wins, draws, losses);
+                }
+                test = String.format(", LLR %.2f (%.2f, %.2f)",
+                        sprt.llr(wins, draws, losses), sprt.getLowerBound(), sprt.getUpperBound());
+            }
+            if (!quiet) {
+                String white = firstIsWhite ? first.getName() : second.getName();
+                String black = firstIsWhite ? second.getName() : first.getName();
+                System.out.printf("Game %d: %s vs %s: %s | +%d =%d -%d%s%n", index + 1, white, black, result,
+                        standings.getWins(), standings.getDraws(), standings.getLosses(), test);
+            }
+        }
+    }
+
+    private static int enginesPerGame(Contestant first, Contestant second) {
+        return (first.needsEngine() ? 1 : 0) + (second.needsEngine() ? 1 : 0);
+    }
+
+    /**
+     * Runs a match from the command line and prints the standings.
+     *
+     * @param args The options listed in the class description.
+     * @throws IOException If the engines fail to start or the opening file
+     * cannot be read.
+     * @throws InterruptedException If the thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Contestant first = Contestant.parse("mcts:time=100");
+        Contestant second = Contestant.parse("stockfish:movetime=100");
+        int games = 1000;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        List<String> openings = OpeningSuite.standard();
+        boolean useSprt = false;
+        double elo0 = 0;
+        double elo1 = 0;
+        double alpha = 0.05;
+        double beta = 0.05;
+        int maxPlies = 400;
+        boolean quiet = false;
+        String enginePath = StockfishConnector.ENGINE_SOURCE;
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("Threads", "1"); // Many engines share the machine
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--first" ->
+                    first = Contestant.parse(args[++i]);
+                case "--second" ->
+                    second = Contestant.parse(args[++i]);
+                case "--games" ->
+                    games = Integer.parseInt(args[++i]);
+                case "--concurrency" ->
+                    concurrency = Integer.parseInt(args[++i]);
+                case "--openings" ->
+                    openings = OpeningSuite.load(Path.of(args[++i]));
+                case "--sprt" -> {
+                    elo0 = Double.parseDouble(args[++i]);
+                    elo1 = Double.parseDouble(args[++i]);
+                    useSprt = true;
+                }
+                case "--alpha" ->
+                    alpha = Double.parseDouble(args[++i]);
+                case "--beta" ->
+                    beta = Double.parseDouble(args[++i]);
+                case "--max-plies" ->
+                    maxPlies = Integer.parseInt(args[++i]);
+                case "--threads" ->
+                    options.put("Threads", args[++i]);
+                case "--hash" ->
+                    options.put("Hash", args[++i]);
+                case "--skill" ->
+                    options.put("Skill Level", args[++i]);
+                case "--engine" ->
+                    enginePath = args[++i];
+                case "--quiet" ->
+                    quiet = true;
+                default ->
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        Sprt sprt = useSprt ? new Sprt(elo0, elo1, alpha, beta) : null;
+
+        int engines = enginesPerGame(first, second) * concurrency;
+        long start = System.nanoTime();
+        try (StockfishPool pool = engines > 0 ? new StockfishPool(engines, options, enginePath) : null) {
+            TournamentRunner runner = new TournamentRunner(first, second, pool, concurrency);
+            runner.setOpenings(openings);
+            runner.setMaxPlies(maxPlies);
+            runner.setSprt(sprt);
+            runner.setQuiet(quiet);
+            Standings standings = runner.run(games);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%s vs %s: %s%n", first, second, standings);
+            System.out.printf("%d games in %.1f s, %.2f games/s, %d at once%n",
+                    standings.getGames(), seconds, standings.getGames() / seconds, concurrency);
+            if (sprt != null) {
+                System.out.println(sprt + ": " + runner.getDecision());
+            }
+        }
+    }
+}
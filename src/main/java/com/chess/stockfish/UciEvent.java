@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: UciEvent
+ *
+ * One line of output from a UCI engine, classified by the connector's reader
+ * thread. The reader turns every line except "info" lines into an event as
+ * soon as it arrives, so the rest of the application works with typed events
+ * instead of reading the engine's output stream directly. Info lines, by far
+ * the most frequent, are parsed in place into a SearchInfo instead and never
+ * become strings.
+ *
+ * Event types:
+ * - UCI_OK and READY_OK: answers to "uci" and "isready".
+ * - INFO: search progress ("info depth ... score ... pv ..."), for lines
+ *   classified with parse() outside the connector.
+ * - BEST_MOVE: the end of a search, with the move and the optional ponder move.
+ * - OUTPUT: any other line, such as "id", "option" or the output of "d".
+ * - CLOSED: the engine closed its output, usually because the process exited.
+ */
+package com.chess.stockfish;
+
+/**
+ * A classified line of UCI engine output.
+ */
+public final class UciEvent {
+
+    /**
+     * The kind of engine output.
+     */
+    public enum Type {
+        UCI_OK,
+        READY_OK,
+        INFO,
+        BEST_MOVE,
+        OUTPUT,
+        CLOSED
+    }
+
+    // Sent after the last line, when the engine's output stream ends
+    static final UciEvent CLOSED = new UciEvent(Type.CLOSED, "", null, null);
+
+    private final Type type;
+    private final String line; // The line as the engine printed it
+    private final String move; // Best move, for BEST_MOVE events
+    private final String ponder; // Ponder move, for BEST_MOVE events that have one
+
+    private UciEvent(Type type, String line, String move, String ponder) {
+        this.type = type;
+        this.line = line;
+        this.move = move;
+        this.ponder = ponder;
+    }
+
+    /**
+     * Classifies a line of engine output.
+     *
+     * @param line The line, without its line terminator.
+     * @return The event for the line.
+     */
+    static UciEvent parse(String line) {
+        if (line.startsWith("info")) {
+            return new UciEvent(Type.INFO, line, null, null);
+        }
+        if (line.startsWith("bestmove")) {
+            String[] parts = line.split(" ");
+            String ponder = parts.length > 3 && parts[2].equals("ponder") ? parts[3] : null;
+            return new UciEvent(Type.BEST_MOVE, line, StockfishConnector.parseBestMove(line), ponder);
+        }
+        return switch (line) {
+            case "uciok" ->
+                new UciEvent(Type.UCI_OK, line, null, null);
+            case "readyok" ->
+                new UciEvent(Type.READY_OK, line, null, null);
+            default ->
+                new UciEvent(Type.OUTPUT, line, null, null);
+        };
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * @return The best move in UCI notation, or null if this is not a
+     * BEST_MOVE event.
+     */
+    public String getMove() {
+        return move;
+    }
+
+    /**
+     * @return The move the engine expects in reply, or null if there is none.
+     */
+    public String getPonder() {
+        return ponder;
+    }
+
+    @Override
+    public String toString() {
+        return type + ": " + line;
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: UciInfoParser
+ *
+ * Parses UCI "info" lines straight from a char buffer into a SearchInfo.
+ * Tokens are compared and numbers are read in place, so no strings or
+ * arrays are created, however fast the engine prints.
+ *
+ * Keywords the parser does not know (currmove, wdl, ...) are skipped one
+ * token at a time, which also skips their values. "info string" lines carry
+ * free text and are not parsed.
+ */
+package com.chess.stockfish;
+
+/**
+ * Allocation-free parser for UCI "info" lines.
+ */
+final class UciInfoParser {
+
+    private UciInfoParser() {} // Prevent instantiation
+
+    /**
+     * Parses an "info" line.
+     *
+     * @param buf The buffer holding the line.
+     * @param start The index of the first character of the line.
+     * @param end The index after the last character of the line.
+     * @param info The record to fill; it is cleared first.
+     * @return True if the line was search progress, false if it was not an
+     * "info" line or was an "info string" line.
+     */
+    static boolean parse(char[] buf, int start, int end, SearchInfo info) {
+        info.clear();
+        int pos = nextToken(buf, start, end);
+        int tokenEnd = tokenEnd(buf, pos, end);
+        if (!matches(buf, pos, tokenEnd, "info")) {
+            return false;
+        }
+
+        pos = nextToken(buf, tokenEnd, end);
+        while (pos < end) {
+            tokenEnd = tokenEnd(buf, pos, end);
+            int valueStart = nextToken(buf, tokenEnd, end);
+            int valueEnd = tokenEnd(buf, valueStart, end);
+            int next = valueEnd; // Where the next keyword starts, after a one-value keyword
+
+            switch (buf[pos]) {
+                case 'd' -> {
+                    if (matches(buf, pos, tokenEnd, "depth")) {
+                        info.depth = (int) parseNumber(buf, valueStart, valueEnd);
+                    } else {
+                        next = tokenEnd;
+                    }
+                }
+                case 's' -> {
+                    if (matches(buf, pos, tokenEnd, "seldepth")) {
+                        info.selDepth = (int) parseNumber(buf, valueStart, valueEnd);
+                    } else if (matches(buf, pos, tokenEnd, "score")) {
+                        // "score cp <x>" or "score mate <y>"; a bound keyword may follow
+                        int numberStart = nextToken(buf, valueEnd, end);
+                        int numberEnd = tokenEnd(buf, numberStart, end);
+                        if (matches(buf, valueStart, valueEnd, "cp")) {
+                            info.scoreKind = SearchInfo.CENTIPAWNS;
+                        } else if (matches(buf, valueStart, valueEnd, "mate")) {
+                            info.scoreKind = SearchInfo.MATE;
+                        }
+                        info.score = (int) parseNumber(buf, numberStart, numberEnd);
+                        next = numberEnd;
+                    } else if (matches(buf, pos, tokenEnd, "string")) {
+                        info.clear();
+                        return false; // Free text to the end of the line
+                    } else {
+                        next = tokenEnd;
+                    }
+                }
+                case 'm' -> {
+                    if (matches(buf, pos, tokenEnd, "multipv")) {
+                        info.multiPv = (int) parseNumber(buf, valueStart, valueEnd);
+                    } else {
+                        next = tokenEnd;
+                    }
+                }
+                case 'n' -> {
+                    if (matches(buf, pos, tokenEnd, "nodes")) {
+                        info.nodes = parseNumber(buf, valueStart, valueEnd);
+                    } else if (matches(buf, pos, tokenEnd, "nps")) {
+                        info.nps = parseNumber(buf, valueStart, valueEnd);
+                    } else {
+                        next = tokenEnd;
+                    }
+                }
+                case 't' -> {
+                    if (matches(buf, pos, tokenEnd, "time")) {
+                        info.timeMs = parseNumber(buf, valueStart, valueEnd);
+                    } else if (matches(buf, pos, tokenEnd, "tbhits")) {
+                        info.tbHits = parseNumber(buf, valueStart, valueEnd);
+                    } else {
+                        next = tokenEnd;
+                    }
+                }
+                case 'h' -> {
+                    if (matches(buf, pos, tokenEnd, "hashfull")) {
+                        info.hashFull = (int) parseNumber(buf, valueStart, valueEnd);
+                    } else {
+                        next = tokenEnd;
+                    }
+                }
+                case 'l' -> {
+                    if (matches(buf, pos, tokenEnd, "lowerbound")) {
+                        info.bound = SearchInfo.LOWER_BOUND;
+                    }
+                    next = tokenEnd;
+                }
+                case 'u' -> {
+                    if (matches(buf, pos, tokenEnd, "upperbound")) {
+                        info.bound = SearchInfo.UPPER_BOUND;
+                    }
+                    next = tokenEnd;
+                }
+                case 'p' -> {
+                    if (matches(buf, pos, tokenEnd, "pv")) {
+                        parsePv(buf, valueStart, end, info);
+                        return true; // The variation runs to the end of the line
+                    }
+                    next = tokenEnd;
+                }
+                default ->
+                    next = tokenEnd;
+            }
+            pos = nextToken(buf, next, end);
+        }
+        return true;
+    }
+
+    /**
+     * Reads the moves of a principal variation into the record.
+     */
+    private static void parsePv(char[] buf, int pos, int end, SearchInfo info) {
+        while (pos < end && info.pvLength < SearchInfo.MAX_PV) {
+            int tokenEnd = tokenEnd(buf, pos, end);
+            int move = parseMove(buf, pos, tokenEnd);
+            if (move < 0) {
+                return; // Not a move: the variation has ended
+            }
+            info.pv[info.pvLength++] = move;
+            pos = nextToken(buf, tokenEnd, end);
+        }
+    }
+
+    /**
+     * Packs a move in UCI notation, e.g. "e2e4" or "e7e8q".
+     *
+     * @return The packed move without flags, or -1 if the token is not a move.
+     */
+    static int parseMove(char[] buf, int start, int end) {
+        int length = end - start;
+        if (length != 4 && length != 5) {
+            return -1;
+        }
+        int from = square(buf[start], buf[start + 1]);
+        int to = square(buf[start + 2], buf[start + 3]);
+        int promotion = length == 5 ? "?rnbq".indexOf(buf[start + 4]) + 1 : 0;
+        if (from < 0 || to < 0 || promotion == 1 || (promotion == 0 && length == 5)) {
+            return -1;
+        }
+        return Move.encode(from, to, 0, promotion);
+    }
+
+    /**
+     * @return The square index (a8 = 0) of a file and rank, or -1.
+     */
+    private static int square(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return ('8' - rank) * 8 + (file - 'a');
+    }
+
+    /**
+     * Reads a decimal number, optionally negative. Parsing stops at the
+     * first character that is not a digit.
+     *
+     * @return The number, or SearchInfo.MISSING if there are no digits.
+     */
+    private static long parseNumber(char[] buf, int start, int end) {
+        boolean negative = start < end && buf[start] == '-';
+        int pos = negative ? start + 1 : start;
+        if (pos >= end || buf[pos] < '0' || buf[pos] > '9') {
+            return SearchInfo.MISSING;
+        }
+        long value = 0;
+        while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+            value = value * 10 + (buf[pos++] - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return True if the token is exactly the keyword.
+     */
+    private static boolean matches(char[] buf, int start, int end, String keyword) {
+        if (end - start != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (buf[start + i] != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The index of the first non-blank character at or after pos, or end.
+     */
+    private static int nextToken(char[] buf, int pos, int end) {
+        while (pos < end && isBlank(buf[pos])) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * @return The index after the last character of the token starting at pos.
+     */
+    private static int tokenEnd(char[] buf, int pos, int end) {
+        while (pos < end && !isBlank(buf[pos])) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * @return True for a token separator. A carriage return counts as one, so
+     * a line that still ends with it does not lose its last token.
+     */
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2024
+ * George Miller
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * ----------------------------------------------------------------------------
+ *
+ * Class: Zobrist
+ *
+ * This class holds the random keys used to hash chess positions. A position's
+ * Zobrist key is the XOR of one key per piece on its square, one key for the
+ * castling rights, one for the en passant file (when there is an en passant
+ * square) and one more when Black is to move. Because XOR is its own inverse,
+ * `ChessBoard` updates the key incrementally as pieces move.
+ *
+ * The keys come from a fixed seed, so the same position always hashes to the
+ * same value across runs.
+ */
+package com.chess.stockfish;
+
+import java.util.SplittableRandom;
+
+final class Zobrist {
+
+    // Key per piece and square, indexed like ChessBoard's piece bitboards
+    static final long[][] PIECE_SQUARE = new long[12][64];
+
+    // Key per combination of the four castling flags
+    static final long[] CASTLING = new long[16];
+
+    // Key per file of the en passant square
+    static final long[] EN_PASSANT_FILE = new long[8];
+
+    // Key added when Black is to move
+    static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x4B696E6746697363L);
+        for (long[] keys : PIECE_SQUARE) {
+            for (int sq = 0; sq < 64; sq++) {
+                keys[sq] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            EN_PASSANT_FILE[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {} // Prevent instantiation
+}
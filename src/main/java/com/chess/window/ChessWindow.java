@@ -1,8 +1,8 @@
 package com.chess.window;
 
 import com.chess.stockfish.ChessBoard;
+import com.chess.stockfish.PositionSnapshot;
 import com.chess.images.ChessPiece;
-import com.chess.montecarlo.SharedBoard;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
@@ -54,8 +54,9 @@ import javafx.application.Platform;
  * - Support for special moves such as castling.
  *
  * The chessboard is represented as an 8x8 grid, and piece images are loaded
- * dynamically based on their positions on the board. The class manages both
- * the internal game state and the visual representation.
+ * dynamically based on their positions on the board. The window does not own
+ * the game state: it draws the latest immutable position snapshot it was
+ * given, so it never reads a board that another thread is changing.
  */
 public class ChessWindow extends Application {
 
@@ -66,8 +67,8 @@ public class ChessWindow extends Application {
     // Y offset for the board
     private final int offsetY = 18;
 
-    // ChessBoard object to manage the internal state of the game
-    private ChessBoard chessBoard;
+    // Position currently displayed; replaced as a whole, never modified
+    private volatile PositionSnapshot position = PositionSnapshot.START;
 
     // JavaFX Scene to represent the game window
     private Scene scene;
@@ -110,9 +111,6 @@ public class ChessWindow extends Application {
         Image chessBoardImage = new Image(boardImageStream);
         ImageView boardImageView = new ImageView(chessBoardImage);
 
-        // Initialize the chessboard state
-        // Use the shared board instead
-        chessBoard = SharedBoard.getBoard();
         boardPane.getChildren().add(boardImageView);
         root.getChildren().add(boardPane);
 
@@ -141,15 +139,12 @@ public class ChessWindow extends Application {
     }
 
     /**
-     * Get the board that is currently displayed in the window.
+     * Get the position that is currently displayed in the window.
      *
-     * @return The board that is currently displayed in the window.
+     * @return The position that is currently displayed in the window.
      */
-    public ChessBoard getBoard() {
-        if (this.chessBoard == null) {
-            throw new IllegalStateException("ChessBoard has not been initialized yet.");
-        }
-        return this.chessBoard;
+    public PositionSnapshot getPosition() {
+        return this.position;
     }
 
     /**
@@ -172,7 +167,7 @@ public class ChessWindow extends Application {
      * @throws Exception If the image for any chess piece cannot be found.
      */
     public void displayChessPieces(int excludeRow, int excludeCol) throws Exception {
-        int[][] board = chessBoard.getBoard();  // Get the current state of the chessboard
+        PositionSnapshot shown = position;  // Read the position once so the whole drawing uses the same one
 
         // Remove all piece images except the board background (which is the first child)
         boardPane.getChildren().removeIf(node -> node instanceof ImageView && node != boardPane.getChildren().get(0));
@@ -180,7 +175,7 @@ public class ChessWindow extends Application {
         // Iterate through each row and column of the board
         for (int row = 0; row < 8; row++) {
             for (int col = 0; col < 8; col++) {
-                int piece = board[row][col];  // Get the piece at the current board position
+                int piece = shown.getPieceAt(row, col);  // Get the piece at the current board position
 
                 // If there is a piece at this position and it is not the one being dragged
                 if (piece != 0 && !(row == excludeRow && col == excludeCol)) {
@@ -256,67 +251,16 @@ public class ChessWindow extends Application {
     }
 
     /**
-     * Executes a move on the chessboard based on a move string and updates the
-     * visual display.
-     *
-     * This method interprets a chess move string in algebraic notation (e.g.,
-     * "e2e4") and applies the move on the internal chessboard. It also handles
-     * special moves like castling: - "0-0" for kingside castling - "0-0-0" for
-     * queenside castling After updating the board's internal state, the display
-     * is refreshed to reflect the changes.
+     * Displays a new position, typically the snapshot published after a move.
+     * Must be called on the JavaFX application thread.
      *
-     * - Validates the move to ensure it is within bounds and that a piece is
-     * present at the source. - Updates both the logical chessboard state and
-     * the visual representation of the board.
-     *
-     * @param move The move in algebraic notation (e.g., "e2e4" for regular
-     * moves, "0-0" for castling).
+     * @param position The position to display.
      * @throws Exception If an image cannot be loaded or another error occurs
      * during rendering.
      */
-    public void movePiece(String move) throws Exception {
-        if (move.equals("0-0")) {  // Kingside castling
-            // Move the white king and rook for kingside castling
-            chessBoard.movePiece(7, 4, 7, 6);  // King from e1 to g1
-            chessBoard.movePiece(7, 7, 7, 5);  // Rook from h1 to f1
-            displayChessPieces(-1, -1);  // Redraw all pieces
-            //System.out.println("Kingside castling for white.");
-        } else if (move.equals("0-0-0")) {  // Queenside castling
-            // Move the white king and rook for queenside castling
-            chessBoard.movePiece(7, 4, 7, 2);  // King from e1 to c1
-            chessBoard.movePiece(7, 0, 7, 3);  // Rook from a1 to d1
-            displayChessPieces(-1, -1);  // Redraw all pieces
-            //System.out.println("Queenside castling for white.");
-        } else {
-            // Regular move handling for moves like "e2e4"
-            int startX = move.charAt(0) - 'a';  // Convert column letter to index ('a' -> 0, 'b' -> 1, etc.)
-            int startY = 8 - Character.getNumericValue(move.charAt(1));  // Convert row number to index (rows are reversed)
-            int endX = move.charAt(2) - 'a';
-            int endY = 8 - Character.getNumericValue(move.charAt(3));
-
-            // Validate that the move coordinates are within the board boundaries
-            if (!isWithinBounds(startX, startY, endX, endY)) {
-                //System.out.println("Invalid move coordinates.");
-                return;
-            }
-
-            // Get the piece from the starting position
-            int piece = chessBoard.getBoard()[startY][startX];
-
-            if (piece == 0) {
-                // If no piece is found at the source, print an error and exit
-                //System.out.println("No piece found at the source.");
-                return; // Exit if there's no piece to move
-            }
-
-            // Step 1: Update the chessboard's internal state by moving the piece
-            chessBoard.movePiece(startY, startX, endY, endX);
-
-            // Step 2: Refresh the board display to reflect the updated positions
-            displayChessPieces(-1, -1);  // Redraw all pieces
-
-            //System.out.println("Move made: " + move);
-        }
+    public void showPosition(PositionSnapshot position) throws Exception {
+        this.position = position;
+        displayChessPieces(-1, -1);  // Redraw all pieces
     }
 
     /**
@@ -362,27 +306,27 @@ public class ChessWindow extends Application {
     /*
      * I will set this to true as I drag the mouse.
      */
-    private static boolean moving = false;
+    private boolean moving = false;
 
     /**
      * The coordinate where the piece begins (x-coordinate).
      */
-    private static int startX = 8;
+    private int startX = 8;
 
     /**
      * The coordinate where the piece begins (y-coordinate).
      */
-    private static int startY = 8;
+    private int startY = 8;
 
     /**
      * The coordinate where the piece ends (x-coordinate).
      */
-    private static int endX = 8;
+    private int endX = 8;
 
     /**
      * The coordinate where the piece ends (y-coordinate).
      */
-    private static int endY = 8;
+    private int endY = 8;
 
     /**
      * Handles the mouse press event on the chessboard to initiate piece
@@ -445,14 +389,21 @@ public class ChessWindow extends Application {
                 endY = y;
                 moving = false;  // Mark that the piece is no longer being moved
 
-                // Step 1: Get the piece from the original position on the board
-                int piece = chessBoard.getBoard()[startY][startX];
+                // Ignore drops outside the board
+                if (!isWithinBounds(startX, startY, endX, endY)) {
+                    return;
+                }
+
+                // Step 1: Copy the displayed position and get the piece from its original square
+                ChessBoard board = position.toBoard();
+                int piece = board.getPieceAt(startY, startX);
 
                 // Step 2: Remove the piece from its original position
-                chessBoard.removePiece(startY, startX);
+                board.removePiece(startY, startX);
 
-                // Step 3: Place the piece in its new position
-                chessBoard.addPiece(endY, endX, piece);
+                // Step 3: Place the piece in its new position and display the edited copy
+                board.addPiece(endY, endX, piece);
+                position = board.snapshot();
 
                 // Step 4: Redraw the chessboard to reflect the updated piece positions
                 try {
@@ -462,8 +413,7 @@ public class ChessWindow extends Application {
                 }
 
                 // Print the updated board state for debugging purposes
-                //System.out.println("Board: " + this.chessBoard.toString());
-                //System.out.println("Process: " + this.chessBoard.getBoardArray().toString());
+                //System.out.println("Board: " + this.position);
             } else {
                 // Piece was not moved (user released on the same square)
                 ////System.out.println("Piece was not moved.");
@@ -4,6 +4,7 @@ module com.george.chess {
     requires javafx.base;
     requires java.logging;
     requires java.desktop; // Added to allow access to java.awt and javax.imageio
+    requires static jdk.incubator.vector; // Optional: SIMD batch evaluation, enabled with --add-modules
 
     // Allow JavaFX to access your window classes
     opens com.chess.window to javafx.graphics;
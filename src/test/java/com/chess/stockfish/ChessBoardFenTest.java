@@ -0,0 +1,55 @@
+package com.chess.stockfish;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that FEN strings survive fromFen and toFen, including the castling
+ * rights, en passant square and move clocks.
+ */
+class ChessBoardFenTest {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    void suiteFensRoundTrip() {
+        for (Object[] position : Perft.SUITE) {
+            String fen = (String) position[1];
+            ChessBoard board = ChessBoard.fromFen(fen);
+            assertEquals(fen, board.toFen(), (String) position[0]);
+            assertEquals(board.hash(), ChessBoard.fromFen(board.toFen()).hash(), (String) position[0]);
+        }
+    }
+
+    @Test
+    void playedMovesSetTheEnPassantSquareAndClocks() {
+        ChessBoard board = ChessBoard.fromFen(START);
+        board.makeMove(6, 4, 4, 4); // e2e4
+        String afterPush = "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1";
+        assertEquals(afterPush, board.toFen());
+        assertEquals(afterPush, ChessBoard.fromFen(afterPush).toFen());
+
+        board.makeMove(0, 6, 2, 5); // g8f6
+        String afterKnight = "rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 1 2";
+        assertEquals(afterKnight, board.toFen());
+        assertEquals(board.hash(), ChessBoard.fromFen(board.toFen()).hash());
+
+        board.unmakeMove();
+        board.unmakeMove();
+        assertEquals(START, board.toFen());
+    }
+
+    @Test
+    void kingMoveClearsCastlingRights() {
+        ChessBoard board = ChessBoard.fromFen(KIWIPETE);
+        board.makeMove(7, 4, 7, 3); // e1d1
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R2K3R b kq - 1 1";
+        assertEquals(fen, board.toFen());
+        assertEquals(fen, ChessBoard.fromFen(fen).toFen());
+
+        board.unmakeMove();
+        assertEquals(KIWIPETE, board.toFen());
+    }
+}
@@ -0,0 +1,42 @@
+package com.chess.stockfish;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the move generator against the published node counts of the perft
+ * suite, at a depth that keeps the test fast.
+ */
+class PerftTest {
+
+    private static final int DEPTH = 3;
+
+    @Test
+    void suiteMatchesExpectedCounts() {
+        for (Object[] position : Perft.SUITE) {
+            long[] expected = (long[]) position[2];
+            ChessBoard board = ChessBoard.fromFen((String) position[1]);
+            assertEquals(expected[DEPTH - 1], Perft.perft(board, DEPTH), (String) position[0]);
+        }
+    }
+
+    @Test
+    void parallelPerftMatchesExpectedCounts() {
+        for (Object[] position : Perft.SUITE) {
+            long[] expected = (long[]) position[2];
+            ChessBoard board = ChessBoard.fromFen((String) position[1]);
+            assertEquals(expected[DEPTH - 1], Perft.parallelPerft(board, DEPTH, 4, null), (String) position[0]);
+        }
+    }
+
+    @Test
+    void perftRestoresTheBoard() {
+        for (Object[] position : Perft.SUITE) {
+            String fen = (String) position[1];
+            ChessBoard board = ChessBoard.fromFen(fen);
+            Perft.perft(board, DEPTH);
+            assertEquals(fen, board.toFen(), (String) position[0]);
+        }
+    }
+}
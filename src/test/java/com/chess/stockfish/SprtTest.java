@@ -0,0 +1,46 @@
+package com.chess.stockfish;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the SPRT stops one-sided matches, which have no variance
+ * without the pseudo counts.
+ */
+class SprtTest {
+
+    private final Sprt sprt = new Sprt(0, 10, 0.05, 0.05);
+
+    @Test
+    void onlyWinsAcceptH1() {
+        assertEquals(Sprt.Decision.ACCEPT_H1, sprt.decide(100, 0, 0));
+    }
+
+    @Test
+    void onlyLossesAcceptH0() {
+        assertEquals(Sprt.Decision.ACCEPT_H0, sprt.decide(0, 0, 100));
+    }
+
+    @Test
+    void onlyDrawsAcceptH0() {
+        assertEquals(Sprt.Decision.ACCEPT_H0, sprt.decide(0, 100, 0));
+    }
+
+    @Test
+    void noGamesContinue() {
+        assertEquals(Sprt.Decision.CONTINUE, sprt.decide(0, 0, 0));
+        assertEquals(0.0, sprt.llr(0, 0, 0));
+    }
+
+    @Test
+    void oneSidedStandingsStayFinite() {
+        Standings standings = new Standings();
+        for (int i = 0; i < 10; i++) {
+            standings.add(new GameResult(GameResult.Outcome.WHITE_WINS, "checkmate", 40, "", 0), true);
+        }
+        assertTrue(Double.isFinite(standings.getElo()));
+        assertTrue(Double.isFinite(standings.getEloMargin()));
+    }
+}
@@ -0,0 +1,99 @@
+package com.chess.stockfish;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the in-place info line parser against the lines Stockfish prints.
+ */
+class UciInfoParserTest {
+
+    private final SearchInfo info = new SearchInfo();
+
+    private boolean parse(String line) {
+        char[] buf = line.toCharArray();
+        return UciInfoParser.parse(buf, 0, buf.length, info);
+    }
+
+    @Test
+    void parsesTheSearchFields() {
+        assertTrue(parse("info depth 20 seldepth 28 multipv 1 score cp 35 nodes 1234567 "
+                + "nps 987654 hashfull 312 tbhits 7 time 1250 pv e2e4"));
+        assertEquals(20, info.getDepth());
+        assertEquals(28, info.getSelDepth());
+        assertEquals(1, info.getMultiPv());
+        assertTrue(info.hasScore());
+        assertFalse(info.isMate());
+        assertEquals(35, info.getScoreCp());
+        assertEquals(SearchInfo.EXACT, info.getBound());
+        assertEquals(1234567L, info.getNodes());
+        assertEquals(987654L, info.getNps());
+        assertEquals(312, info.getHashFull());
+        assertEquals(7L, info.getTbHits());
+        assertEquals(1250L, info.getTimeMs());
+    }
+
+    @Test
+    void parsesANegativeMateScore() {
+        assertTrue(parse("info depth 24 seldepth 6 score mate -3 nodes 5000 pv g8f6"));
+        assertTrue(info.hasScore());
+        assertTrue(info.isMate());
+        assertEquals(-3, info.getMateIn());
+    }
+
+    @Test
+    void parsesBounds() {
+        assertTrue(parse("info depth 12 score cp 27 lowerbound nodes 100"));
+        assertEquals(27, info.getScoreCp());
+        assertEquals(SearchInfo.LOWER_BOUND, info.getBound());
+        assertEquals(100L, info.getNodes());
+
+        assertTrue(parse("info depth 12 score cp -27 upperbound nodes 100"));
+        assertEquals(-27, info.getScoreCp());
+        assertEquals(SearchInfo.UPPER_BOUND, info.getBound());
+    }
+
+    @Test
+    void parsesAMultiMoveVariation() {
+        String[] moves = {"e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "e7e8q"};
+        assertTrue(parse("info depth 10 score cp 20 pv " + String.join(" ", moves)));
+        assertEquals(moves.length, info.getPvLength());
+        for (int i = 0; i < moves.length; i++) {
+            assertEquals(moves[i], Move.toUci(info.getPvMove(i)));
+        }
+    }
+
+    @Test
+    void ignoresInfoStrings() {
+        assertFalse(parse("info string NNUE evaluation using nn-1111cefa1111.nnue score cp 100"));
+        assertFalse(info.hasScore());
+        assertEquals(SearchInfo.MISSING, info.getDepth());
+    }
+
+    @Test
+    void parsesTheMultiPvIndex() {
+        assertTrue(parse("info depth 15 multipv 2 score cp -12 pv d2d4 d7d5"));
+        assertEquals(2, info.getMultiPv());
+        assertEquals(-12, info.getScoreCp());
+        assertEquals(2, info.getPvLength());
+    }
+
+    @Test
+    void toleratesACarriageReturn() {
+        assertTrue(parse("info depth 5 score cp 10 nodes 42\r"));
+        assertEquals(42L, info.getNodes());
+
+        assertTrue(parse("info depth 5 score cp 10 pv e2e4 e7e5\r"));
+        assertEquals(2, info.getPvLength());
+        assertEquals("e7e5", Move.toUci(info.getPvMove(1)));
+    }
+
+    @Test
+    void rejectsOtherLines() {
+        assertFalse(parse("bestmove e2e4 ponder e7e5"));
+        assertFalse(parse("readyok"));
+    }
+}